@@ -0,0 +1,43 @@
+package app.pi_fisio.benchmark;
+
+import app.pi_fisio.auth.JwtKeyRing;
+import app.pi_fisio.auth.JwtService;
+import app.pi_fisio.entity.Intensity;
+import app.pi_fisio.entity.Joint;
+import app.pi_fisio.entity.JointIntensity;
+import app.pi_fisio.entity.User;
+import app.pi_fisio.entity.UserRole;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Preparação comum aos benchmarks.
+ */
+final class BenchmarkSupport {
+
+    static final String SECRET = "benchmark-secret";
+
+    private BenchmarkSupport() {
+    }
+
+    // Sem configuração o logback escreve tudo no console, o que mede o terminal e não o código
+    static void quietLogging() {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+    }
+
+    static JwtService jwtService() {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "keyRing", new JwtKeyRing(SECRET, null));
+        return jwtService;
+    }
+
+    static User user() {
+        return new User(1L, "User", LocalDate.of(2000, 1, 1), "user@gmail.com", "google-id", "https://picture.com",
+                UserRole.USER, "Math", List.of("3A"), List.of(new JointIntensity(1L, Joint.KNEE, Intensity.LOW, null)));
+    }
+}
@@ -0,0 +1,76 @@
+package app.pi_fisio.benchmark;
+
+import app.pi_fisio.auth.JwtService;
+import app.pi_fisio.auth.JwtTokenCache;
+import app.pi_fisio.config.JwtAuthenticationFilter;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo do JwtAuthenticationFilter por requisição: token já no cache, token fora do cache
+ * (verificação completa da assinatura) e requisição sem token.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthenticationFilterBenchmark {
+
+    JwtAuthenticationFilter filter;
+    JwtTokenCache jwtTokenCache;
+    MockHttpServletRequest authenticated;
+    MockHttpServletRequest anonymous;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        JwtService jwtService = BenchmarkSupport.jwtService();
+        jwtTokenCache = new JwtTokenCache(10_000, 1440);
+
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtService", jwtService);
+        ReflectionTestUtils.setField(filter, "jwtTokenCache", jwtTokenCache);
+
+        authenticated = new MockHttpServletRequest("GET", "/api/user/info");
+        authenticated.addHeader("Authorization", "Bearer " + jwtService.generateToken(BenchmarkSupport.user(), 60));
+        anonymous = new MockHttpServletRequest("GET", "/api/exercise");
+    }
+
+    @TearDown(Level.Invocation)
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public Object cachedToken() throws ServletException, IOException {
+        return filter(authenticated);
+    }
+
+    @Benchmark
+    public Object uncachedToken() throws ServletException, IOException {
+        jwtTokenCache.invalidateAll();
+        return filter(authenticated);
+    }
+
+    @Benchmark
+    public Object withoutToken() throws ServletException, IOException {
+        return filter(anonymous);
+    }
+
+    private Object filter(MockHttpServletRequest request) throws ServletException, IOException {
+        MockFilterChain chain = new MockFilterChain();
+        // doFilter passa pelo OncePerRequestFilter, que chama doFilterInternal
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
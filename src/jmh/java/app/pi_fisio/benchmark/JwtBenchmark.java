@@ -0,0 +1,41 @@
+package app.pi_fisio.benchmark;
+
+import app.pi_fisio.auth.JwtService;
+import app.pi_fisio.entity.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emissão e validação de tokens pelo JwtService (HMAC256).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    JwtService jwtService;
+    User user;
+    String token;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        jwtService = BenchmarkSupport.jwtService();
+        user = BenchmarkSupport.user();
+        token = jwtService.generateToken(user, 60);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user, 60);
+    }
+
+    @Benchmark
+    public String validateToken() {
+        return jwtService.validateToken(token);
+    }
+}
@@ -0,0 +1,138 @@
+package app.pi_fisio.benchmark;
+
+import app.pi_fisio.auth.JwtService;
+import app.pi_fisio.auth.JwtTokenCache;
+import app.pi_fisio.config.JwtAuthenticationFilter;
+import app.pi_fisio.entity.User;
+import app.pi_fisio.infra.logging.SamplingTurboFilter;
+import app.pi_fisio.repository.UserRepository;
+import app.pi_fisio.service.UserService;
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import jakarta.servlet.ServletException;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latência de uma requisição autenticada (JwtAuthenticationFilter + UserService.findById, com o repositório
+ * simulado) conforme a configuração de log: desligado (WARN), síncrono em arquivo, assíncrono, e cada um deles
+ * com amostragem 1/20 das linhas marcadas com LogMarkers.SAMPLED. O arquivo usa flush a cada evento, como o console.
+ * O id muda a cada requisição, como em produção: cada linha de log formatada é diferente.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoggingBenchmark {
+
+    private static final String PATTERN = "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p --- [%t] %-40.40logger{39} : %m%n";
+
+    @Param({"off", "sync", "sync-sampled", "async", "async-sampled"})
+    String mode;
+
+    JwtAuthenticationFilter filter;
+    UserService userService;
+    MockHttpServletRequest request;
+    File logFile;
+    long nextId;
+
+    @Setup
+    public void setUp() throws IOException {
+        JwtService jwtService = BenchmarkSupport.jwtService();
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtService", jwtService);
+        ReflectionTestUtils.setField(filter, "jwtTokenCache", new JwtTokenCache(10_000, 1440));
+
+        User user = BenchmarkSupport.user();
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        Mockito.when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
+        userService = new UserService();
+        ReflectionTestUtils.setField(userService, "userRepository", userRepository);
+
+        request = new MockHttpServletRequest("GET", "/api/user/1");
+        request.addHeader("Authorization", "Bearer " + jwtService.generateToken(user, 60));
+
+        logFile = Files.createTempFile("logging-benchmark", ".log").toFile();
+        configureLogging();
+    }
+
+    @TearDown
+    public void tearDown() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.getLogger(Logger.ROOT_LOGGER_NAME).detachAndStopAllAppenders();
+        context.resetTurboFilterList();
+        BenchmarkSupport.quietLogging();
+        logFile.delete();
+    }
+
+    @TearDown(Level.Invocation)
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public Object request() throws ServletException, IOException {
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return userService.findById(++nextId);
+    }
+
+    private void configureLogging() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.detachAndStopAllAppenders();
+        if (mode.equals("off")) {
+            root.setLevel(ch.qos.logback.classic.Level.WARN);
+            return;
+        }
+        root.setLevel(ch.qos.logback.classic.Level.INFO);
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+
+        FileAppender<ILoggingEvent> file = new FileAppender<>();
+        file.setContext(context);
+        file.setFile(logFile.getAbsolutePath());
+        file.setEncoder(encoder);
+        file.start();
+
+        Appender<ILoggingEvent> appender = file;
+        if (mode.startsWith("async")) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.setNeverBlock(true);
+            async.addAppender(file);
+            async.start();
+            appender = async;
+        }
+        if (mode.endsWith("-sampled")) {
+            SamplingTurboFilter sampling = new SamplingTurboFilter();
+            sampling.setContext(context);
+            sampling.setRate(20);
+            sampling.start();
+            context.addTurboFilter(sampling);
+        }
+        root.addAppender(appender);
+    }
+}
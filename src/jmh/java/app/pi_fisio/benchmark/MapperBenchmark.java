@@ -0,0 +1,80 @@
+package app.pi_fisio.benchmark;
+
+import app.pi_fisio.dto.ExerciseDTO;
+import app.pi_fisio.dto.UserDTO;
+import app.pi_fisio.entity.*;
+import app.pi_fisio.helper.CopyPropertiesUtil;
+import app.pi_fisio.helper.UserMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.BeanUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara os mappers escritos à mão com a cópia por reflexão (BeanUtils / CopyPropertiesUtil) usada antes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+@SuppressWarnings("deprecation")
+public class MapperBenchmark {
+
+    Exercise exercise;
+    User user;
+    User patch;
+
+    @Setup
+    public void setUp() {
+        exercise = new Exercise(1L, "Exercise 01", "Exercise 01 description", "3x", "https://videoUrl.com", Joint.SHOULDER, Intensity.HIGH);
+        user = new User(1L, "User", LocalDate.of(2000, 1, 1), "user@gmail.com", "google-id", "https://picture.com",
+                UserRole.USER, "Math", List.of("3A"), List.of(new JointIntensity(1L, Joint.KNEE, Intensity.LOW, null)));
+        patch = new User();
+        patch.setName("New name");
+        patch.setClasses(List.of("3B"));
+    }
+
+    @Benchmark
+    public ExerciseDTO exerciseToDtoBeanUtils() {
+        ExerciseDTO dto = new ExerciseDTO();
+        BeanUtils.copyProperties(exercise, dto);
+        return dto;
+    }
+
+    @Benchmark
+    public ExerciseDTO exerciseToDtoMapper() {
+        return new ExerciseDTO(exercise);
+    }
+
+    @Benchmark
+    public UserDTO userToDtoBeanUtils() {
+        UserDTO dto = new UserDTO();
+        BeanUtils.copyProperties(user, dto);
+        return dto;
+    }
+
+    @Benchmark
+    public UserDTO userToDtoMapper() {
+        return new UserDTO(user);
+    }
+
+    @Benchmark
+    public User patchCopyPropertiesUtil() throws IllegalAccessException {
+        User target = new User();
+        CopyPropertiesUtil.copyNonNullProperties(user, target);
+        CopyPropertiesUtil.copyNonNullProperties(patch, target);
+        return target;
+    }
+
+    @Benchmark
+    public User patchMapper() {
+        User target = new User();
+        UserMapper.copyNonNull(user, target);
+        UserMapper.copyNonNull(patch, target);
+        return target;
+    }
+}
@@ -0,0 +1,55 @@
+package app.pi_fisio.benchmark;
+
+import app.pi_fisio.auth.HmacPasswordEncoder;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de CPU do userId por login: BCrypt (antes) contra HMAC-SHA256 (depois).
+ * encode é o primeiro login (cadastro), matches é uma verificação do valor armazenado.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordEncoderBenchmark {
+
+    static final String GOOGLE_SUB = "109876543210987654321";
+
+    BCryptPasswordEncoder bcrypt;
+    HmacPasswordEncoder hmac;
+    String bcryptHash;
+    String hmacHash;
+
+    @Setup
+    public void setUp() {
+        bcrypt = new BCryptPasswordEncoder();
+        hmac = new HmacPasswordEncoder(BenchmarkSupport.SECRET);
+        bcryptHash = bcrypt.encode(GOOGLE_SUB);
+        hmacHash = hmac.encode(GOOGLE_SUB);
+    }
+
+    @Benchmark
+    public String bcryptEncode() {
+        return bcrypt.encode(GOOGLE_SUB);
+    }
+
+    @Benchmark
+    public boolean bcryptMatches() {
+        return bcrypt.matches(GOOGLE_SUB, bcryptHash);
+    }
+
+    @Benchmark
+    public String hmacEncode() {
+        return hmac.encode(GOOGLE_SUB);
+    }
+
+    @Benchmark
+    public boolean hmacMatches() {
+        return hmac.matches(GOOGLE_SUB, hmacHash);
+    }
+}
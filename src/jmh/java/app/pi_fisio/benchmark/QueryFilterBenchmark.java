@@ -0,0 +1,53 @@
+package app.pi_fisio.benchmark;
+
+import app.pi_fisio.entity.Exercise;
+import app.pi_fisio.entity.Intensity;
+import app.pi_fisio.entity.Joint;
+import app.pi_fisio.queryfilters.ExerciseQueryFilter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Montagem da Specification a partir dos filtros da listagem de exercícios (sem executar a consulta).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryFilterBenchmark {
+
+    ExerciseQueryFilter empty;
+    ExerciseQueryFilter full;
+    Set<Long> nameMatchIds;
+
+    @Setup
+    public void setUp() {
+        empty = new ExerciseQueryFilter();
+        full = new ExerciseQueryFilter();
+        full.setName("ombro");
+        full.setJoints(EnumSet.of(Joint.SHOULDER, Joint.KNEE));
+        full.setIntensities(EnumSet.of(Intensity.LOW, Intensity.MEDIUM));
+        nameMatchIds = Set.of(1L, 2L, 3L, 4L, 5L);
+    }
+
+    @Benchmark
+    public Specification<Exercise> emptyFilter() {
+        return empty.toSpecification();
+    }
+
+    @Benchmark
+    public Specification<Exercise> fullFilter() {
+        return full.toSpecification();
+    }
+
+    @Benchmark
+    public Specification<Exercise> fullFilterWithIndexedName() {
+        return full.toSpecification(nameMatchIds);
+    }
+}
@@ -0,0 +1,50 @@
+package app.pi_fisio.benchmark;
+
+import app.pi_fisio.dto.ExerciseDTO;
+import app.pi_fisio.dto.ExercisePageDTO;
+import app.pi_fisio.entity.Intensity;
+import app.pi_fisio.entity.Joint;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização JSON de uma página de exercícios, com o ObjectMapper configurado como o do Spring Boot.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({"10", "100"})
+    int size;
+
+    ObjectMapper objectMapper;
+    ExercisePageDTO page;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        Joint[] joints = Joint.values();
+        Intensity[] intensities = Intensity.values();
+        List<ExerciseDTO> exercises = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            exercises.add(new ExerciseDTO((long) i, "Exercise " + i, "Exercise " + i + " description", "10x",
+                    "https://videoUrl.com/" + i, joints[i % joints.length], intensities[i % intensities.length]));
+        }
+        page = new ExercisePageDTO(exercises, 1000L, 1000 / size, null, true);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
@@ -4,6 +4,7 @@ import app.pi_fisio.auth.RequestAuthDTO;
 import app.pi_fisio.auth.RequestRefreshTokenDTO;
 import app.pi_fisio.auth.TokenResponseDTO;
 import app.pi_fisio.auth.AuthService;
+import app.pi_fisio.infra.metrics.QueryBudget;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -17,6 +18,8 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+
 @Tag(name = "Autenticação", description = "Endpoints para autenticação e geração de tokens JWT")
 @RestController
 @RequestMapping("/api/auth")
@@ -28,13 +31,15 @@ public class AuthController {
     @Operation(summary = "Autenticação via Google", description = "Realiza autenticação do usuário via token do Google e retorna um JWT.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Autenticação bem-sucedida", content = @Content(schema = @Schema(implementation = TokenResponseDTO.class))),
-            @ApiResponse(responseCode = "401", description = "Token inválido ou não autorizado")
+            @ApiResponse(responseCode = "401", description = "Token inválido ou não autorizado"),
+            @ApiResponse(responseCode = "503", description = "Muitos cadastros simultâneos, tente novamente")
     })
     @PostMapping("/login")
-    public ResponseEntity<TokenResponseDTO> authWithGoogle(@RequestBody RequestAuthDTO requestAuthDTO) throws Exception {
+    @QueryBudget(2)
+    public CompletableFuture<ResponseEntity<TokenResponseDTO>> authWithGoogle(@RequestBody RequestAuthDTO requestAuthDTO) throws Exception {
         String idTokenString = requestAuthDTO.idToken();
-        TokenResponseDTO response = authService.authWithGoogle(idTokenString);
-        return ResponseEntity.ok(response);
+        // A thread da requisição é liberada enquanto o cadastro de um usuário novo roda no loginExecutor
+        return authService.authWithGoogleAsync(idTokenString).thenApply(ResponseEntity::ok);
     }
 
     @Operation(summary = "Renovação de Token JWT", description = "Gera um novo token de acesso baseado no refresh token fornecido.")
@@ -43,6 +48,7 @@ public class AuthController {
             @ApiResponse(responseCode = "401", description = "Token inválido ou expirado")
     })
     @PostMapping("/refreshToken")
+    @QueryBudget(2)
     public ResponseEntity<TokenResponseDTO> authRefreshToken(@RequestBody RequestRefreshTokenDTO refreshTokenDTO) throws Exception {
         String refreshToken = refreshTokenDTO.refreshToken();
         return ResponseEntity.ok(authService.getRefreshToken(refreshToken));
@@ -7,72 +7,124 @@ import app.pi_fisio.entity.UserRole;
 import app.pi_fisio.infra.exception.InvalidGoogleTokenException;
 import app.pi_fisio.repository.UserRepository;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
-import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
-import com.google.api.client.http.javanet.NetHttpTransport;
-import com.google.api.client.json.gson.GsonFactory;
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
-import java.util.Collections;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 @Log4j2
 @Service
 public class AuthService {
-    @Value("${google.client.id}")
-    private String googleClientId;
-
+    @Autowired
+    private GoogleTokenVerifier googleTokenVerifier;
     @Autowired
     private JwtService jwtService;
     @Autowired
     private PasswordEncoder passwordEncoder;
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    @Qualifier("loginExecutor")
+    private Executor loginExecutor;
 
-    public TokenResponseDTO authWithGoogle(String idTokenString) throws Exception {
+    // Cadastros em andamento por email: logins simultâneos do mesmo usuário novo esperam o mesmo cadastro
+    private final Map<String, CompletableFuture<User>> provisioning = new ConcurrentHashMap<>();
 
-        GoogleIdTokenVerifier verifier = new GoogleIdTokenVerifier.Builder(new NetHttpTransport(), new GsonFactory())
-                .setAudience(Collections.singletonList(googleClientId))
-                .build();
+    @Timed(value = "auth.google.login", percentiles = {0.5, 0.95, 0.99})
+    public TokenResponseDTO authWithGoogle(String idTokenString) throws Exception {
+        try {
+            return authWithGoogleAsync(idTokenString).get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
 
+    /**
+     * Login via Google. A verificação do token e a busca do usuário rodam na thread da requisição;
+     * o cadastro do usuário novo (BCrypt + insert) roda no loginExecutor.
+     * Lança RejectedExecutionException se o executor estiver saturado.
+     */
+    @Timed(value = "auth.google.login", percentiles = {0.5, 0.95, 0.99})
+    public CompletableFuture<TokenResponseDTO> authWithGoogleAsync(String idTokenString) throws Exception {
         // Verifica o token ID
-        GoogleIdToken idToken = verifier.verify(idTokenString);
-        if (idToken == null) {
+        GoogleIdToken.Payload payload = googleTokenVerifier.verify(idTokenString);
+        if (payload == null) {
             log.warn("Token do Google inválido recebido.");
             throw new InvalidGoogleTokenException("Invalid Google ID Token");
         }
         // Get profile information from payload
-        GoogleIdToken.Payload payload = idToken.getPayload();
         String userId = payload.getSubject();
         String email = payload.getEmail();
         String picture = (String) payload.get("picture");
         String name = (String) payload.get("name");
 
-        User user = userRepository.findByEmail(email)
-                .orElseGet(() -> {
-                    log.info("Usuário {} não encontrado no banco. Criando novo usuário.", email);
-                    return createUser(userId, email, name, picture);
-                });
-        log.info("Usuário {} autenticado com sucesso.", email);
-        return createTokenResponse(user);
+        Optional<User> existing = userRepository.findByEmail(email);
+        if (existing.isPresent()) {
+            upgradeCredential(existing.get(), userId);
+            log.info("Usuário {} autenticado com sucesso.", email);
+            return CompletableFuture.completedFuture(createTokenResponse(existing.get()));
+        }
+
+        CompletableFuture<User> created = provisioning.computeIfAbsent(email, key ->
+                CompletableFuture.supplyAsync(() -> userRepository.findByEmail(email)
+                        .orElseGet(() -> {
+                            log.info("Usuário {} não encontrado no banco. Criando novo usuário.", email);
+                            return createUser(userId, email, name, picture);
+                        }), loginExecutor));
+        created.whenComplete((user, error) -> provisioning.remove(email, created));
+
+        return created.thenApply(user -> {
+            log.info("Usuário {} autenticado com sucesso.", email);
+            return createTokenResponse(user);
+        });
     }
 
     public TokenResponseDTO getRefreshToken(String refreshToken) throws Exception {
         String userLogin = jwtService.validateToken(refreshToken);
         Optional<User> optionalUser = userRepository.findByEmail(userLogin);
 
-        var authentication = new UsernamePasswordAuthenticationToken(optionalUser.get(), null, optionalUser.get().getAuthorities());
+        var principal = AuthenticatedUser.from(optionalUser.get());
+        var authentication = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
         return createTokenResponse(optionalUser.get());
 
     }
 
+    /**
+     * Regrava em HMAC o userId ainda guardado em BCrypt. A verificação BCrypt (a última desse usuário)
+     * roda no loginExecutor, sem atrasar a resposta; se o executor estiver cheio tenta no próximo login.
+     */
+    private void upgradeCredential(User user, String googleSubject) {
+        String stored = user.getUserId();
+        if (stored == null || !passwordEncoder.upgradeEncoding(stored)) return;
+        try {
+            loginExecutor.execute(() -> {
+                if (!passwordEncoder.matches(googleSubject, stored)) {
+                    log.warn("userId armazenado não confere com o token do Google para o usuário {}.", user.getEmail());
+                    return;
+                }
+                if (userRepository.updateUserId(user.getId(), stored, passwordEncoder.encode(googleSubject)) > 0) {
+                    log.info("userId do usuário {} migrado para HMAC.", user.getEmail());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Executor de login cheio, migração do userId de {} fica para o próximo login.", user.getEmail());
+        }
+    }
+
     private User createUser(String userId, String email, String name, String picture) {
         User user = User.builder()
                 .userId(passwordEncoder.encode(userId))
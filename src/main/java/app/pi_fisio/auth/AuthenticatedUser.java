@@ -0,0 +1,66 @@
+package app.pi_fisio.auth;
+
+import app.pi_fisio.entity.User;
+import app.pi_fisio.entity.UserRole;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Principal leve usado no SecurityContext.
+ * É montado a partir das claims do JWT, sem carregar a entidade User (e suas coleções) do banco.
+ * Quem precisar da entidade completa deve buscá-la pelo id ou email.
+ */
+public record AuthenticatedUser(Long id, String email, UserRole role, String password) implements UserDetails {
+
+    private static final List<GrantedAuthority> ADMIN_AUTHORITIES =
+            List.of(new SimpleGrantedAuthority("ROLE_ADMIN"), new SimpleGrantedAuthority("ROLE_USER"));
+    private static final List<GrantedAuthority> USER_AUTHORITIES =
+            List.of(new SimpleGrantedAuthority("ROLE_USER"));
+
+    public AuthenticatedUser(Long id, String email, UserRole role) {
+        this(id, email, role, null);
+    }
+
+    public static AuthenticatedUser from(User user) {
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getRole());
+    }
+
+    public static AuthenticatedUser from(DecodedJWT jwt) throws JWTVerificationException {
+        Long id = jwt.getClaim("id").asLong();
+        String role = jwt.getClaim("role").asString();
+        if (id == null || role == null) {
+            throw new JWTVerificationException("Token sem as claims 'id' e 'role'.");
+        }
+        return new AuthenticatedUser(id, jwt.getSubject(), UserRole.valueOf(role));
+    }
+
+    public boolean isAdmin() {
+        return role == UserRole.ADMIN;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return isAdmin() ? ADMIN_AUTHORITIES : USER_AUTHORITIES;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public String toString() {
+        return "AuthenticatedUser[id=" + id + ", email=" + email + ", role=" + role + "]";
+    }
+}
@@ -0,0 +1,41 @@
+package app.pi_fisio.auth;
+
+import com.google.api.client.googleapis.auth.oauth2.GooglePublicKeysManager;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.util.List;
+
+/**
+ * Chaves publicadas pelo Google (https://www.googleapis.com/oauth2/v1/certs), mantidas em cache pelo
+ * GooglePublicKeysManager até o max-age informado pelo Google.
+ */
+public class GoogleCertsKeySource implements GooglePublicKeySource {
+
+    // O GooglePublicKeysManager renova sozinho 5 minutos antes de expirar, na thread da requisição;
+    // o refresh em background acontece antes disso
+    private static final long REFRESH_AHEAD_MILLIS = 10 * 60 * 1000;
+
+    private final GooglePublicKeysManager publicKeysManager;
+
+    public GoogleCertsKeySource(GooglePublicKeysManager publicKeysManager) {
+        this.publicKeysManager = publicKeysManager;
+    }
+
+    public GooglePublicKeysManager getPublicKeysManager() {
+        return publicKeysManager;
+    }
+
+    @Override
+    public List<PublicKey> getPublicKeys() throws GeneralSecurityException, IOException {
+        return publicKeysManager.getPublicKeys();
+    }
+
+    @Override
+    public void refreshIfStale() throws GeneralSecurityException, IOException {
+        if (publicKeysManager.getExpirationTimeMilliseconds() - System.currentTimeMillis() < REFRESH_AHEAD_MILLIS) {
+            publicKeysManager.refresh();
+        }
+    }
+}
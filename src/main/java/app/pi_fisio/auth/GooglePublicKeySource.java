@@ -0,0 +1,23 @@
+package app.pi_fisio.auth;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.util.List;
+
+/**
+ * Origem das chaves públicas usadas para validar a assinatura dos ID tokens do Google.
+ */
+public interface GooglePublicKeySource {
+
+    /**
+     * Chaves atuais, vindas do cache local sempre que possível.
+     */
+    List<PublicKey> getPublicKeys() throws GeneralSecurityException, IOException;
+
+    /**
+     * Chamado periodicamente em background para renovar as chaves antes que expirem,
+     * assim nenhuma requisição de login espera pelo download.
+     */
+    void refreshIfStale() throws GeneralSecurityException, IOException;
+}
@@ -0,0 +1,128 @@
+package app.pi_fisio.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
+import com.google.api.client.googleapis.auth.oauth2.GooglePublicKeysManager;
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.json.gson.GsonFactory;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Verificador de ID tokens do Google compartilhado por todos os logins.
+ * As chaves públicas ficam em cache local e são renovadas em background ({@link GooglePublicKeySource});
+ * com google.keys.file elas vêm de um arquivo JWKS em vez do Google.
+ * Tokens já verificados ficam em cache por alguns segundos, então retentativas do cliente não repetem a verificação.
+ */
+@Log4j2
+@Component
+public class GoogleTokenVerifier {
+
+    private final GooglePublicKeySource keySource;
+    private final GoogleIdTokenVerifier verifier;
+    private final Cache<String, GoogleIdToken.Payload> verified;
+
+    public GoogleTokenVerifier(@Value("${google.client.id}") String googleClientId,
+                               @Value("${google.keys.file:}") String keysFile,
+                               @Value("${google.token_cache.ttl_seconds:60}") long ttlSeconds) {
+        GooglePublicKeysManager publicKeysManager = new GooglePublicKeysManager(new NetHttpTransport(), GsonFactory.getDefaultInstance());
+        this.keySource = keysFile == null || keysFile.isBlank()
+                ? new GoogleCertsKeySource(publicKeysManager)
+                : new JwksFileKeySource(Path.of(keysFile));
+        this.verifier = new KeySourceVerifier(new GoogleIdTokenVerifier.Builder(publicKeysManager)
+                .setAudience(List.of(googleClientId)), keySource);
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfter(new PayloadExpiry(Duration.ofSeconds(ttlSeconds).toNanos()))
+                .build();
+    }
+
+    /**
+     * Retorna o payload do ID token, ou null se ele for inválido (assinatura, audience, emissor ou validade).
+     */
+    @Timed(value = "auth.google.verify", percentiles = {0.5, 0.95, 0.99})
+    public GoogleIdToken.Payload verify(String idTokenString) throws GeneralSecurityException, IOException {
+        GoogleIdToken.Payload cached = verified.getIfPresent(idTokenString);
+        if (cached != null) {
+            return cached;
+        }
+        GoogleIdToken idToken = verifier.verify(idTokenString);
+        if (idToken == null) {
+            return null;
+        }
+        verified.put(idTokenString, idToken.getPayload());
+        return idToken.getPayload();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${google.keys.refresh_check_ms:300000}", initialDelayString = "${google.keys.refresh_check_ms:300000}")
+    public void refreshKeys() {
+        try {
+            keySource.refreshIfStale();
+        } catch (Exception e) {
+            // As chaves atuais continuam em uso; o GooglePublicKeysManager tenta de novo quando expirarem
+            log.error("Não foi possível atualizar as chaves públicas do Google: {}", e.getMessage());
+        }
+    }
+
+    // Mesmas validações do GoogleIdTokenVerifier, mas com as chaves vindas do GooglePublicKeySource
+    private static class KeySourceVerifier extends GoogleIdTokenVerifier {
+
+        private final GooglePublicKeySource keySource;
+
+        KeySourceVerifier(GoogleIdTokenVerifier.Builder builder, GooglePublicKeySource keySource) {
+            super(builder);
+            this.keySource = keySource;
+        }
+
+        @Override
+        public boolean verify(GoogleIdToken idToken) throws GeneralSecurityException, IOException {
+            if (!verifyPayload(idToken)) {
+                return false;
+            }
+            for (PublicKey publicKey : keySource.getPublicKeys()) {
+                if (idToken.verifySignature(publicKey)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // Cada token fica no cache pelo TTL configurado, mas nunca além do seu próprio "exp"
+    private record PayloadExpiry(long ttlNanos) implements Expiry<String, GoogleIdToken.Payload> {
+
+        @Override
+        public long expireAfterCreate(String token, GoogleIdToken.Payload payload, long currentTime) {
+            Long expiresAt = payload.getExpirationTimeSeconds();
+            if (expiresAt == null) return ttlNanos;
+            long untilExpiration = Duration.ofSeconds(expiresAt).toNanos() - Duration.ofMillis(System.currentTimeMillis()).toNanos();
+            return Math.max(0, Math.min(ttlNanos, untilExpiration));
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, GoogleIdToken.Payload payload, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, payload, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, GoogleIdToken.Payload payload, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
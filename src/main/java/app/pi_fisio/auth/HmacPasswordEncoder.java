@@ -0,0 +1,53 @@
+package app.pi_fisio.auth;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * HMAC-SHA256 com um segredo do servidor, usado para o "sub" do Google guardado em User.userId.
+ * O sub não é uma senha escolhida pelo usuário (é longo e aleatório), então um hash lento como o BCrypt
+ * não traz proteção extra e só consome CPU; o segredo impede que o valor seja recalculado fora do servidor.
+ */
+public class HmacPasswordEncoder implements PasswordEncoder {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+
+    public HmacPasswordEncoder(String secret) {
+        if (secret == null || secret.isEmpty()) {
+            throw new IllegalArgumentException("O segredo do HMAC não pode ser vazio");
+        }
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return Base64.getEncoder().withoutPadding().encodeToString(hmac(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) return false;
+        byte[] expected = encode(rawPassword).getBytes(StandardCharsets.US_ASCII);
+        // Comparação em tempo constante
+        return MessageDigest.isEqual(expected, encodedPassword.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private byte[] hmac(CharSequence rawPassword) {
+        try {
+            // Mac não é thread-safe; criar um por chamada custa bem menos que sincronizar
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(rawPassword.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 indisponível", e);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package app.pi_fisio.auth;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Chaves RSA lidas de um arquivo JWKS local ({"keys": [{"kty": "RSA", "n": ..., "e": ...}]}),
+ * usado em testes e ambientes sem acesso ao Google. O arquivo é relido quando muda.
+ */
+public class JwksFileKeySource implements GooglePublicKeySource {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Path file;
+    // Lock em vez de synchronized: a leitura do arquivo bloqueia e não deve prender virtual threads
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile List<PublicKey> publicKeys;
+    private volatile long lastModified = -1;
+
+    public JwksFileKeySource(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public List<PublicKey> getPublicKeys() throws GeneralSecurityException, IOException {
+        List<PublicKey> current = publicKeys;
+        if (current == null) {
+            refreshIfStale();
+            current = publicKeys;
+        }
+        return current;
+    }
+
+    @Override
+    public void refreshIfStale() throws GeneralSecurityException, IOException {
+        lock.lock();
+        try {
+            long modified = Files.getLastModifiedTime(file).toMillis();
+            if (publicKeys != null && modified == lastModified) return;
+
+            List<PublicKey> loaded = new ArrayList<>();
+            KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            for (JsonNode key : MAPPER.readTree(file.toFile()).path("keys")) {
+                if (!"RSA".equals(key.path("kty").asText())) continue;
+                BigInteger modulus = new BigInteger(1, decoder.decode(key.path("n").asText()));
+                BigInteger exponent = new BigInteger(1, decoder.decode(key.path("e").asText()));
+                loaded.add(keyFactory.generatePublic(new RSAPublicKeySpec(modulus, exponent)));
+            }
+            publicKeys = List.copyOf(loaded);
+            lastModified = modified;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package app.pi_fisio.auth;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Chaves HMAC usadas para assinar e validar os JWTs, indexadas pelo "kid" do cabeçalho.
+ * O Algorithm e o JWTVerifier de cada chave são montados uma única vez e reaproveitados (são thread-safe).
+ * <p>
+ * A chave de jwt.secret é sempre a "default" e valida os tokens emitidos sem kid.
+ * Chaves extras podem vir de um arquivo (jwt.keys.file) no formato de properties, relido periodicamente:
+ * <pre>
+ * active=2026-10
+ * 2026-10=segredo-novo
+ * 2026-07=segredo-antigo
+ * </pre>
+ * Para rotacionar sem reiniciar: adicione a nova chave, troque o "active" e, depois que os tokens antigos
+ * expirarem, remova a chave antiga do arquivo (ou use {@link #rotate} e {@link #retire}).
+ */
+@Log4j2
+@Component
+public class JwtKeyRing {
+
+    public static final String DEFAULT_KID = "default";
+    static final String ACTIVE_PROPERTY = "active";
+    static final String ISSUER = "PI-Fisio";
+
+    private final String defaultSecret;
+    private final Path keysFile;
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    @Autowired(required = false)
+    JwtTokenCache jwtTokenCache;
+
+    private volatile Keys keys;
+    private long keysFileModified = -1;
+
+    public JwtKeyRing(@Value("${jwt.secret}") String defaultSecret,
+                      @Value("${jwt.keys.file:}") String keysFile) {
+        this.defaultSecret = defaultSecret;
+        this.keysFile = keysFile == null || keysFile.isBlank() ? null : Path.of(keysFile);
+        this.keys = Keys.of(DEFAULT_KID, Map.of(DEFAULT_KID, defaultSecret));
+        reload();
+    }
+
+    /**
+     * Chave ativa para assinar novos tokens; kid e algoritmo vêm do mesmo snapshot, mesmo durante uma rotação.
+     */
+    public SigningKey signingKey() {
+        Keys current = keys;
+        return new SigningKey(current.signingKid(), current.algorithms().get(current.signingKid()));
+    }
+
+    /**
+     * Verifier da chave informada; tokens sem kid usam a chave default. Retorna null para kid desconhecido.
+     */
+    public JWTVerifier verifier(String kid) {
+        return keys.verifiers().get(kid == null ? DEFAULT_KID : kid);
+    }
+
+    /**
+     * Adiciona (ou substitui) a chave e passa a assinar os novos tokens com ela.
+     * Os tokens emitidos com as chaves anteriores continuam válidos até serem retirados.
+     */
+    public void rotate(String kid, String secret) {
+        writeLock.lock();
+        try {
+            Map<String, String> secrets = new HashMap<>(keys.secrets());
+            secrets.put(kid, secret);
+            replace(Keys.of(kid, secrets));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Remove a chave: tokens assinados com ela deixam de ser aceitos. A chave ativa não pode ser retirada.
+     */
+    public void retire(String kid) {
+        writeLock.lock();
+        try {
+            Keys current = keys;
+            if (kid.equals(current.signingKid())) {
+                throw new IllegalArgumentException("A chave ativa não pode ser retirada: " + kid);
+            }
+            Map<String, String> secrets = new HashMap<>(current.secrets());
+            if (secrets.remove(kid) == null) return;
+            replace(Keys.of(current.signingKid(), secrets));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Relê o arquivo de chaves se ele mudou desde a última leitura. Em caso de erro mantém as chaves atuais.
+     */
+    @Scheduled(fixedDelayString = "${jwt.keys.reload_ms:60000}", initialDelayString = "${jwt.keys.reload_ms:60000}")
+    public void reload() {
+        if (keysFile == null) return;
+        writeLock.lock();
+        try {
+            long modified = Files.getLastModifiedTime(keysFile).toMillis();
+            if (modified == keysFileModified) return;
+
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(keysFile)) {
+                properties.load(reader);
+            }
+            Map<String, String> secrets = new HashMap<>();
+            secrets.put(DEFAULT_KID, defaultSecret);
+            for (String kid : properties.stringPropertyNames()) {
+                if (!kid.equals(ACTIVE_PROPERTY)) secrets.put(kid, properties.getProperty(kid));
+            }
+            String active = properties.getProperty(ACTIVE_PROPERTY, DEFAULT_KID);
+            if (!secrets.containsKey(active)) {
+                log.error("Chave ativa '{}' não existe em {}, mantendo as chaves atuais.", active, keysFile);
+                return;
+            }
+            replace(Keys.of(active, secrets));
+            keysFileModified = modified;
+            log.info("Chaves JWT carregadas de {}: {} (ativa: {}).", keysFile, secrets.keySet(), active);
+        } catch (IOException e) {
+            log.error("Não foi possível ler o arquivo de chaves JWT {}: {}", keysFile, e.getMessage());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void replace(Keys updated) {
+        boolean retired = !updated.secrets().keySet().containsAll(keys.secrets().keySet());
+        keys = updated;
+        // Tokens já validados com uma chave retirada não podem continuar vindo do cache
+        if (retired && jwtTokenCache != null) {
+            jwtTokenCache.invalidateAll();
+        }
+    }
+
+    public record SigningKey(String kid, Algorithm algorithm) {
+    }
+
+    private record Keys(String signingKid, Map<String, String> secrets,
+                        Map<String, Algorithm> algorithms, Map<String, JWTVerifier> verifiers) {
+
+        static Keys of(String signingKid, Map<String, String> secrets) {
+            Map<String, Algorithm> algorithms = new HashMap<>();
+            Map<String, JWTVerifier> verifiers = new HashMap<>();
+            secrets.forEach((kid, secret) -> {
+                Algorithm algorithm = Algorithm.HMAC256(secret);
+                algorithms.put(kid, algorithm);
+                verifiers.put(kid, JWT.require(algorithm).withIssuer(ISSUER).build());
+            });
+            return new Keys(signingKid, Map.copyOf(secrets), Map.copyOf(algorithms), Map.copyOf(verifiers));
+        }
+    }
+}
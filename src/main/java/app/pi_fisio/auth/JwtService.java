@@ -2,52 +2,68 @@ package app.pi_fisio.auth;
 
 //JwtService.java
 
-import app.pi_fisio.config.JwtConfig;
 import app.pi_fisio.entity.User;
 import com.auth0.jwt.JWT;
-import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.exceptions.JWTCreationException;
+import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.exceptions.TokenExpiredException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.ZoneOffset;
 
 @Log4j2
 @Service
 public class JwtService {
 
+    @Autowired
+    JwtKeyRing keyRing;
+
+    @Timed(value = "jwt.generate", percentiles = {0.5, 0.95, 0.99})
     public String generateToken(User userDetails, Integer expiration) throws JWTCreationException {
+        JwtKeyRing.SigningKey signingKey = keyRing.signingKey();
         String token = JWT.create()
                 .withClaim("username", userDetails.getUsername())
                 .withClaim("role", userDetails.getRole().name())
                 .withClaim("name", userDetails.getName())
                 .withClaim("id", userDetails.getId())
                 .withClaim("picture", userDetails.getPictureUrl())
-                .withIssuer("PI-Fisio")
+                .withKeyId(signingKey.kid())
+                .withIssuer(JwtKeyRing.ISSUER)
                 .withSubject(userDetails.getUsername())
+                .withIssuedAt(Instant.now())
                 .withExpiresAt(generateExpirationDate(expiration))
-                .sign(Algorithm.HMAC256(JwtConfig.getSecretKey()));
+                .sign(signingKey.algorithm());
 
         log.info("Token JWT gerado com sucesso para usuário: {}", userDetails.getEmail());
         return token;
     }
 
     public Instant generateExpirationDate(Integer expiration) {
-        return LocalDateTime.now()
-                .plusMinutes(expiration)
-                .toInstant(ZoneOffset.of("-03:00"));
+        // Instant, sem fuso: o "exp" não pode depender do fuso do servidor (JwtTokenCache conta com ele)
+        return Instant.now().plus(Duration.ofMinutes(expiration));
     }
 
+    @Timed(value = "jwt.validate", percentiles = {0.5, 0.95, 0.99})
     public String validateToken(String token) throws TokenExpiredException {
+        return verifyToken(token).getSubject();
+    }
+
+    @Timed(value = "jwt.validate", percentiles = {0.5, 0.95, 0.99})
+    public DecodedJWT verifyToken(String token) throws TokenExpiredException {
         try {
-            return JWT.require(Algorithm.HMAC256(JwtConfig.getSecretKey()))
-                    .withIssuer("PI-Fisio")
-                    .build()
-                    .verify(token)
-                    .getSubject();
+            // O token é decodificado uma vez só: o kid escolhe o verifier, que reaproveita o DecodedJWT
+            DecodedJWT decoded = JWT.decode(token);
+            JWTVerifier verifier = keyRing.verifier(decoded.getKeyId());
+            if (verifier == null) {
+                throw new JWTVerificationException("Chave de assinatura desconhecida: " + decoded.getKeyId());
+            }
+            return verifier.verify(decoded);
         } catch (TokenExpiredException e) {
             log.warn("Token JWT expirado: {}", token);
             throw e;
@@ -56,6 +72,4 @@ public class JwtService {
             throw e;
         }
     }
-
-
 }
@@ -0,0 +1,132 @@
+package app.pi_fisio.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+
+/**
+ * Cache de tokens JWT já verificados -> principal autenticado.
+ * Cada entrada expira junto com o "exp" do próprio token, e o cache é limitado em tamanho.
+ * Também guarda as revogações por usuário: tokens emitidos antes da revogação deixam de ser aceitos.
+ * Publica as métricas cache.* (name=jwt.tokens: acertos, falhas, remoções) e jwt.revocations.
+ */
+@Log4j2
+@Component
+public class JwtTokenCache implements MeterBinder {
+
+    // Folga sobre a validade do refresh token: o "iat" é truncado para segundos e os relógios podem divergir
+    static final Duration REVOCATION_MARGIN = Duration.ofMinutes(5);
+
+    private final Cache<String, CachedToken> cache;
+    private final Cache<Long, Instant> revocations;
+
+    @Autowired
+    public JwtTokenCache(@Value("${jwt.cache.max_size:10000}") long maxSize,
+                         @Value("${jwt.refresh.token.expiration:1440}") long revocationMinutes) {
+        this(maxSize, revocationMinutes, Ticker.systemTicker());
+    }
+
+    JwtTokenCache(long maxSize, long revocationMinutes, Ticker ticker) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        // Um token emitido antes da revogação expira no máximo jwt.refresh.token.expiration depois dela
+        // (JwtService.generateExpirationDate); a revogação dura isso mais a folga e então pode ser esquecida
+        this.revocations = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(revocationMinutes).plus(REVOCATION_MARGIN))
+                .ticker(ticker)
+                .build();
+    }
+
+    public AuthenticatedUser get(String token) {
+        CachedToken cached = cache.getIfPresent(token);
+        return cached == null ? null : cached.principal();
+    }
+
+    public void put(String token, AuthenticatedUser principal, Instant expiresAt) {
+        if (expiresAt == null || !expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        cache.put(token, new CachedToken(principal, expiresAt));
+    }
+
+    public boolean isRevoked(Long userId, Instant issuedAt) {
+        Instant revokedAt = revocations.getIfPresent(userId);
+        if (revokedAt == null) return false;
+        // O "iat" tem precisão de segundos: um token do mesmo segundo da revogação pode ter sido emitido antes dela
+        return issuedAt == null || !issuedAt.isAfter(revokedAt);
+    }
+
+    /**
+     * Remove do cache os tokens do usuário e rejeita os tokens emitidos até o segundo atual, inclusive.
+     * Usado quando o id, email ou role do usuário deixam de ser os mesmos das claims.
+     */
+    public void revokeUser(Long userId) {
+        if (userId == null) return;
+        revocations.put(userId, Instant.now().truncatedTo(ChronoUnit.SECONDS));
+        cache.asMap().values().removeIf(cached -> userId.equals(cached.principal().id()));
+        log.debug("Tokens revogados para o usuário ID {}", userId);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "jwt.tokens");
+        Gauge.builder("jwt.revocations", revocations, Cache::estimatedSize)
+                .description("Usuários com tokens revogados ainda lembrados")
+                .register(registry);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    record CachedToken(AuthenticatedUser principal, Instant expiresAt) {
+        CachedToken {
+            Objects.requireNonNull(principal);
+            Objects.requireNonNull(expiresAt);
+        }
+    }
+
+    private static class TokenExpiry implements Expiry<String, CachedToken> {
+        @Override
+        public long expireAfterCreate(String token, CachedToken cached, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), cached.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, CachedToken cached, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, cached, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, CachedToken cached, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
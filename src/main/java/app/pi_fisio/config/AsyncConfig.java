@@ -0,0 +1,62 @@
+package app.pi_fisio.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.task.SimpleAsyncTaskExecutorBuilder;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * O executor padrão do Spring Boot (MVC async, @Async) deixa de ser criado quando existe qualquer outro
+     * Executor no contexto, então ele é declarado aqui com a mesma configuração (spring.task.execution.*).
+     */
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    @Primary
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    // Com spring.threads.virtual.enabled=true o Boot usa um executor de virtual threads
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    @Primary
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public AsyncTaskExecutor applicationTaskExecutorVirtualThreads(SimpleAsyncTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    /**
+     * Executor do cadastro no primeiro login (BCrypt + insert), fora das threads do Tomcat.
+     * É limitado: com a fila cheia a tarefa é rejeitada e o login responde 503 em vez de acumular trabalho.
+     * Com virtual threads continua limitado, mas as threads do pool são virtuais.
+     */
+    @Bean
+    public Executor loginExecutor(@Value("${auth.login.threads:4}") int threads,
+                                  @Value("${auth.login.queue_capacity:200}") int queueCapacity,
+                                  @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("login-");
+        if (virtualThreads) {
+            executor.setThreadFactory(new VirtualThreadTaskExecutor("login-").getVirtualThreadFactory());
+        }
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+}
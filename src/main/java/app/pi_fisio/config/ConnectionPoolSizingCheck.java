@@ -0,0 +1,75 @@
+package app.pi_fisio.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Confere na subida se o pool JDBC combina com a concorrência da aplicação.
+ * Com platform threads as 200 threads do Tomcat limitam quantas requisições disputam conexões;
+ * com virtual threads esse limite some e o pool passa a ser o único gargalo.
+ */
+@Log4j2
+@Component
+public class ConnectionPoolSizingCheck {
+
+    // Quanto tempo uma requisição pode esperar por uma conexão antes de falhar, com virtual threads
+    static final long MAX_VIRTUAL_CONNECTION_TIMEOUT_MS = 10_000;
+    static final int MAX_POOL_WITHOUT_WARNING = 32;
+    // Conexão extra usada pelo gerador de ids para reservar um bloco durante uma transação (ver IdGenerators)
+    static final int ID_BLOCK_CONNECTIONS = 1;
+    // Quantas vezes o tamanho recomendado o pool pode ter antes do aviso
+    static final int MAX_POOL_FACTOR = 4;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    boolean virtualThreads;
+    @Value("${server.tomcat.threads.max:200}")
+    int tomcatThreads;
+    @Value("${server.tomcat.max-connections:8192}")
+    int tomcatMaxConnections;
+    @Value("${auth.login.threads:4}")
+    int loginThreads;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void check() throws SQLException {
+        if (!dataSource.isWrapperFor(HikariDataSource.class)) return;
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+
+        int poolSize = hikari.getMaximumPoolSize();
+        int cores = Runtime.getRuntime().availableProcessors();
+        int concurrency = virtualThreads ? tomcatMaxConnections : tomcatThreads;
+        log.info("Pool JDBC com {} conexões para até {} requisições simultâneas ({} threads, {} núcleos).",
+                poolSize, concurrency, virtualThreads ? "virtual" : "platform", cores);
+
+        // Cada cadastro no executor de login segura uma conexão e pode precisar de outra para um bloco de ids
+        if (poolSize <= loginThreads + ID_BLOCK_CONNECTIONS) {
+            log.warn("O pool JDBC ({}) não tem folga sobre o executor de login ({}) mais {} conexão para os blocos de ids: "
+                    + "um pico de cadastros pode ocupar todas as conexões.", poolSize, loginThreads, ID_BLOCK_CONNECTIONS);
+        }
+        if (virtualThreads && hikari.getConnectionTimeout() > MAX_VIRTUAL_CONNECTION_TIMEOUT_MS) {
+            log.warn("Com virtual threads as requisições esperam até {} ms por uma conexão do pool; "
+                    + "considere reduzir spring.datasource.hikari.connection-timeout.", hikari.getConnectionTimeout());
+        }
+        // Fórmula do HikariCP (núcleos * 2 + discos, com um disco); bem acima disso as conexões só disputam CPU no banco.
+        // Avisa acima de MAX_POOL_FACTOR vezes o recomendado, e nunca abaixo de MAX_POOL_WITHOUT_WARNING
+        int recommended = recommendedPoolSize(cores);
+        if (poolSize > Math.max(recommended * MAX_POOL_FACTOR, MAX_POOL_WITHOUT_WARNING)) {
+            log.warn("Pool JDBC ({}) mais de {}x maior que o recomendado para {} núcleos (núcleos * 2 + 1 = {}).",
+                    poolSize, MAX_POOL_FACTOR, cores, recommended);
+        }
+    }
+
+    static int recommendedPoolSize(int cores) {
+        return cores * 2 + 1;
+    }
+}
@@ -0,0 +1,60 @@
+package app.pi_fisio.config;
+
+import app.pi_fisio.entity.IdGenerators;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Garante que cada contador da tabela de ids comece depois do maior id já gravado.
+ * As tabelas vêm de IDENTITY (AUTO_INCREMENT) e o gerador começaria do 1, colidindo com as linhas existentes.
+ * Roda na criação do contexto, antes do Tomcat aceitar requisições; é idempotente e só avança os contadores.
+ */
+@Log4j2
+@Component
+public class IdGeneratorSeeder {
+
+    // contador -> entidade (JPQL)
+    static final Map<String, String> ENTITIES = Map.of(
+            IdGenerators.EXERCISE, "Exercise",
+            IdGenerators.USER, "User",
+            IdGenerators.JOINT_INTENSITY, "JointIntensity");
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void seed() {
+        ENTITIES.forEach((name, entity) -> {
+            Long maxId = entityManager.createQuery("SELECT MAX(e.id) FROM " + entity + " e", Long.class).getSingleResult();
+            if (maxId != null) advance(name, maxId + 1);
+        });
+    }
+
+    // No pooled-lo o valor gravado é o primeiro id do próximo bloco
+    void advance(String name, long nextId) {
+        List<Long> current = jdbcTemplate.queryForList(
+                "SELECT " + IdGenerators.VALUE_COLUMN + " FROM " + IdGenerators.TABLE + " WHERE " + IdGenerators.NAME_COLUMN + " = ?",
+                Long.class, name);
+        if (current.isEmpty()) {
+            jdbcTemplate.update("INSERT INTO " + IdGenerators.TABLE + " (" + IdGenerators.NAME_COLUMN + ", " + IdGenerators.VALUE_COLUMN
+                    + ") VALUES (?, ?)", name, nextId);
+        } else if (current.get(0) < nextId) {
+            jdbcTemplate.update("UPDATE " + IdGenerators.TABLE + " SET " + IdGenerators.VALUE_COLUMN + " = ? WHERE "
+                    + IdGenerators.NAME_COLUMN + " = ? AND " + IdGenerators.VALUE_COLUMN + " < ?", nextId, name, nextId);
+        } else {
+            return;
+        }
+        log.info("Gerador de ids '{}' avançado para {}.", name, nextId);
+    }
+}
@@ -2,10 +2,12 @@ package app.pi_fisio.config;
 
 //JwtAuthenticationFilter.java
 
-import app.pi_fisio.entity.User;
-import app.pi_fisio.repository.UserRepository;
+import app.pi_fisio.auth.AuthenticatedUser;
 import app.pi_fisio.auth.JwtService;
+import app.pi_fisio.auth.JwtTokenCache;
+import app.pi_fisio.infra.metrics.ServerTiming;
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -19,7 +21,9 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Optional;
+
+import static app.pi_fisio.infra.logging.LogMarkers.SAMPLED;
+
 @Log4j2
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -27,42 +31,56 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtService jwtService;
     @Autowired
-    private UserRepository userRepository;
+    private JwtTokenCache jwtTokenCache;
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain)
             throws ServletException, IOException, JWTVerificationException{
+        ServerTiming timing = ServerTiming.current();
+        long start = timing == null ? 0 : System.nanoTime();
+        AuthenticatedUser principal = authenticate(request);
+        if (timing != null) {
+            timing.add(ServerTiming.Phase.JWT, System.nanoTime() - start);
+        }
+
+        if (principal != null) {
+            var authentication = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+            log.info(SAMPLED, "Autenticação bem-sucedida para o usuário: {}", principal.email());
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Principal do token Bearer da requisição (do cache ou verificado agora), ou null se não houver token válido.
+     */
+    private AuthenticatedUser authenticate(HttpServletRequest request) {
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String userLogin;
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            log.debug("Requisição sem token JWT ou com formato inválido. URI: {}", request.getRequestURI());
-            filterChain.doFilter(request, response);
-            return;
+            log.debug(SAMPLED, "Requisição sem token JWT ou com formato inválido. URI: {}", request.getRequestURI());
+            return null;
         }
         jwt = authHeader.substring(7);
 
-        try {
-            userLogin = jwtService.validateToken(jwt);
-            log.info("Token JWT validado para usuário: {}", userLogin);
-        } catch (JWTVerificationException e) {
-            log.warn("Falha na validação do token JWT: {}. Erro: {}", jwt, e.getMessage());
-            filterChain.doFilter(request, response);
-            return;
-        }
+        AuthenticatedUser principal = jwtTokenCache.get(jwt);
+        if (principal == null) {
+            final DecodedJWT decodedJWT;
+            try {
+                decodedJWT = jwtService.verifyToken(jwt);
+                principal = AuthenticatedUser.from(decodedJWT);
+                log.info(SAMPLED, "Token JWT validado para usuário: {}", principal.email());
+            } catch (JWTVerificationException | IllegalArgumentException e) {
+                log.warn("Falha na validação do token JWT: {}. Erro: {}", jwt, e.getMessage());
+                return null;
+            }
 
-        Optional<User> optionalUser = userRepository.findByEmail(userLogin);
-        if (optionalUser.isEmpty()) {
-            log.warn("Usuário não encontrado para o token JWT: {}", userLogin);
-            filterChain.doFilter(request, response);
-            return;
+            if (jwtTokenCache.isRevoked(principal.id(), decodedJWT.getIssuedAtAsInstant())) {
+                log.warn("Token JWT revogado para o usuário: {}", principal.email());
+                return null;
+            }
+            jwtTokenCache.put(jwt, principal, decodedJWT.getExpiresAtAsInstant());
         }
-
-        User user = optionalUser.get();
-        var authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-
-        log.info("Autenticação bem-sucedida para o usuário: {}", user.getEmail());
-        filterChain.doFilter(request, response);
+        return principal;
     }
 }
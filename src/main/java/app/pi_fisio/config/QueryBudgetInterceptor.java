@@ -0,0 +1,65 @@
+package app.pi_fisio.config;
+
+import app.pi_fisio.infra.exception.QueryBudgetExceededException;
+import app.pi_fisio.infra.metrics.QueryBudget;
+import app.pi_fisio.infra.metrics.QueryCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Aplica o {@link QueryBudget} do endpoint sobre a contagem do StatementMetricsFilter.
+ * Em produção cada estouro incrementa app.query_budget.exceeded e loga um aviso; a pilha do statement excedente
+ * vai no primeiro aviso de cada endpoint.
+ */
+@Log4j2
+@Component
+public class QueryBudgetInterceptor implements HandlerInterceptor {
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${query.budget.fail:false}")
+    boolean fail;
+
+    private final Set<String> sampled = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler) {
+        if (handler instanceof HandlerMethod method) {
+            QueryBudget budget = AnnotatedElementUtils.findMergedAnnotation(method.getMethod(), QueryBudget.class);
+            if (budget == null) {
+                budget = AnnotatedElementUtils.findMergedAnnotation(method.getBeanType(), QueryBudget.class);
+            }
+            if (budget != null) {
+                QueryCounter.budget(budget.value(), fail);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler, Exception ex) {
+        QueryBudgetExceededException exceeded = QueryCounter.exceeded();
+        if (exceeded == null || fail || !(handler instanceof HandlerMethod method)) return;
+
+        String endpoint = method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+        meterRegistry.counter("app.query_budget.exceeded", "endpoint", endpoint).increment();
+        if (sampled.add(endpoint)) {
+            log.warn("{} excedeu o orçamento de consultas ({} no total): {}", endpoint, QueryCounter.queries(), exceeded.getMessage(), exceeded);
+        } else {
+            log.warn("{} excedeu o orçamento de consultas ({} no total): {}", endpoint, QueryCounter.queries(), exceeded.getMessage());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package app.pi_fisio.config;
+
+import app.pi_fisio.infra.metrics.ServerTiming;
+import app.pi_fisio.repository.UserRepository;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Soma no ServerTiming o tempo gasto nos repositórios: UserRepository na fase "user", os demais em "db".
+ * Sem Server-Timing na requisição o custo é um ThreadLocal.get() por chamada.
+ */
+@Aspect
+@Component
+public class RepositoryTimingAspect {
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        ServerTiming timing = ServerTiming.current();
+        if (timing == null) {
+            return joinPoint.proceed();
+        }
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            timing.add(joinPoint.getThis() instanceof UserRepository ? ServerTiming.Phase.USER : ServerTiming.Phase.DB,
+                    System.nanoTime() - start);
+        }
+    }
+}
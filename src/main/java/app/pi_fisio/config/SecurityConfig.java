@@ -1,5 +1,6 @@
 package app.pi_fisio.config;
 
+import app.pi_fisio.infra.metrics.ServerTiming;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
@@ -49,6 +50,9 @@ public class SecurityConfig {
                         .requestMatchers("/api/api/auth/**").permitAll()
                         .requestMatchers("/auth/**").permitAll()
                         .requestMatchers("/v3/api-docs/**", "swagger-ui/**", "swagger-ui.html").permitAll()
+                        // Em produção o Actuator só atende na porta interna (management.server.port)
+                        .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
 
                         .anyRequest().authenticated())
                 .authenticationProvider(authenticationProvider)
@@ -67,7 +71,10 @@ public class SecurityConfig {
                 "http://localhost",
                 frontendUrl
         ));
-        config.setAllowedHeaders(Arrays.asList(HttpHeaders.AUTHORIZATION, HttpHeaders.CONTENT_TYPE, HttpHeaders.ACCEPT));
+        // If-None-Match/ETag: o front revalida o catálogo de exercícios com GET condicional (304)
+        config.setAllowedHeaders(Arrays.asList(HttpHeaders.AUTHORIZATION, HttpHeaders.CONTENT_TYPE, HttpHeaders.ACCEPT,
+                HttpHeaders.IF_NONE_MATCH, ServerTiming.REQUEST_HEADER));
+        config.setExposedHeaders(List.of(HttpHeaders.ETAG, ServerTiming.RESPONSE_HEADER));
         config.setAllowedMethods(Arrays.asList(HttpMethod.GET.name(), HttpMethod.POST.name(), HttpMethod.PUT.name(), HttpMethod.DELETE.name(), HttpMethod.PATCH.name()));
         config.setMaxAge(3600L);
         source.registerCorsConfiguration("/**", config);
@@ -1,27 +1,47 @@
 package app.pi_fisio.config;
 
+import app.pi_fisio.auth.AuthenticatedUser;
+import app.pi_fisio.auth.HmacPasswordEncoder;
 import app.pi_fisio.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.Map;
+
 @Configuration
 public class SecurityManager {
 
     @Autowired
     private UserRepository userRepository;
 
+    // Obrigatório e separado do jwt.secret: trocar a chave dos JWT não pode invalidar as credenciais gravadas
+    @Value("${auth.credential.secret}")
+    private String credentialSecret;
+
+    /**
+     * Novos valores são gravados como "{hmac}...". Valores sem prefixo são os BCrypt antigos: continuam
+     * válidos e são regravados em HMAC no próximo login (upgradeEncoding).
+     */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder();
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("hmac", Map.of(
+                "hmac", new HmacPasswordEncoder(credentialSecret),
+                "bcrypt", bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
     }
 
     @Bean
@@ -29,9 +49,20 @@ public class SecurityManager {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService());
         authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsPasswordService(userDetailsPasswordService());
         return authProvider;
     }
 
+    // Regrava o valor em HMAC quando uma autenticação passa com um BCrypt antigo
+    @Bean
+    public UserDetailsPasswordService userDetailsPasswordService() {
+        return (user, newPassword) -> {
+            AuthenticatedUser principal = (AuthenticatedUser) user;
+            userRepository.updateUserId(principal.id(), principal.password(), newPassword);
+            return new AuthenticatedUser(principal.id(), principal.email(), principal.role(), newPassword);
+        };
+    }
+
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
         return config.getAuthenticationManager();
@@ -39,7 +70,7 @@ public class SecurityManager {
 
     @Bean
     public UserDetailsService userDetailsService() {
-        return username -> userRepository.findByEmail(username)
+        return username -> userRepository.findPrincipalByEmail(username)
                 .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado"));
     }
 }
@@ -0,0 +1,120 @@
+package app.pi_fisio.config;
+
+import app.pi_fisio.infra.metrics.ServerTiming;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Devolve o cabeçalho Server-Timing (jwt, user, db, app, json, total) quando a requisição envia X-Server-Timing
+ * e o usuário é ADMIN; o detalhamento aparece na aba Timing do devtools do navegador.
+ * Roda antes do Spring Security para medir a validação do JWT. Sem o cabeçalho o custo é um getHeader.
+ * <p>
+ * Como roda antes da autenticação, o corpo só fica em memória quando começa a ser escrito e o usuário já foi
+ * liberado como ADMIN (ServerTimingAdvice.preHandle); para os demais, mesmo com X-Server-Timing, a resposta vai
+ * direto ao cliente.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 1)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // O corpo das respostas assíncronas (login Google) é escrito no dispatch assíncrono e copiado nele
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            filterChain.doFilter(request, response);
+            ContentCachingResponseWrapper wrapper = WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+            if (wrapper != null && !request.isAsyncStarted()) {
+                wrapper.copyBodyToResponse();
+            }
+            return;
+        }
+        if (request.getHeader(ServerTiming.REQUEST_HEADER) == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        ServerTiming timing = ServerTiming.start();
+        TimedResponse timedResponse = new TimedResponse(response, timing);
+        try {
+            filterChain.doFilter(request, timedResponse);
+        } finally {
+            ServerTiming.stop();
+            if (timing.isAllowed() && !timedResponse.isCommitted()) {
+                timedResponse.setHeader(ServerTiming.RESPONSE_HEADER, timing.header());
+            }
+            if (!request.isAsyncStarted()) {
+                timedResponse.copyBodyToResponse();
+            }
+        }
+    }
+
+    /**
+     * Decide no primeiro acesso ao corpo: com o ServerTiming liberado, passa a escrever num
+     * ContentCachingResponseWrapper (o cabeçalho precisa sair antes do corpo, então a resposta fica em memória até o
+     * fim para medir o JSON); senão escreve direto na resposta.
+     */
+    private static final class TimedResponse extends HttpServletResponseWrapper {
+
+        private final ServerTiming timing;
+        private ContentCachingResponseWrapper cache;
+        private boolean decided;
+
+        TimedResponse(HttpServletResponse response, ServerTiming timing) {
+            super(response);
+            this.timing = timing;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            decide();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            decide();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            decide();
+            super.flushBuffer();
+        }
+
+        void copyBodyToResponse() throws IOException {
+            if (cache != null) {
+                cache.copyBodyToResponse();
+            }
+        }
+
+        private void decide() {
+            if (decided) return;
+            decided = true;
+            if (timing.isAllowed()) {
+                cache = new ContentCachingResponseWrapper((HttpServletResponse) getResponse());
+                setResponse(cache);
+            }
+        }
+    }
+}
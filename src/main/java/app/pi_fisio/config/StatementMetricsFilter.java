@@ -0,0 +1,48 @@
+package app.pi_fisio.config;
+
+import app.pi_fisio.infra.metrics.QueryCounter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Publica quantos statements SQL cada requisição executou (app.request.statements), por método e rota,
+ * com as mesmas tags method/uri de http.server.requests. Um endpoint com N+1 aparece aqui antes de aparecer na latência.
+ */
+@Component
+public class StatementMetricsFilter extends OncePerRequestFilter {
+
+    static final String METRIC = "app.request.statements";
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryCounter.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int statements = QueryCounter.stop();
+            // O padrão da rota (/api/exercise/{id}) mantém a cardinalidade baixa; sem handler a URI não é usada
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder(METRIC)
+                    .baseUnit("statements")
+                    .tag("method", request.getMethod())
+                    .tag("uri", pattern == null ? "UNKNOWN" : pattern.toString())
+                    .register(meterRegistry)
+                    .record(statements);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package app.pi_fisio.config;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Registra no log quando uma virtual thread fica presa à thread carrier (pinning), por exemplo ao bloquear
+ * dentro de um bloco synchronized. Usa o evento JFR jdk.VirtualThreadPinned, só existe com virtual threads.
+ * Para ver todos os casos, sem limite de duração, rode com -Djdk.tracePinnedThreads=short.
+ */
+@Log4j2
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor {
+
+    private static final int STACK_FRAMES = 8;
+
+    private final AtomicLong pinnedEvents = new AtomicLong();
+    private final Duration threshold;
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(@Value("${virtual.pinning.threshold_ms:20}") long thresholdMs) {
+        this.threshold = Duration.ofMillis(thresholdMs);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        try {
+            stream = new RecordingStream();
+            stream.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+            stream.onEvent("jdk.VirtualThreadPinned", event -> {
+                pinnedEvents.incrementAndGet();
+                String stack = event.getStackTrace() == null ? "" : event.getStackTrace().getFrames().stream()
+                        .limit(STACK_FRAMES)
+                        .map(VirtualThreadPinningMonitor::frame)
+                        .collect(Collectors.joining("\n\tat ", "\n\tat ", ""));
+                log.warn("Virtual thread presa à carrier por {} ms:{}", event.getDuration().toMillis(), stack);
+            });
+            stream.startAsync();
+            log.info("Monitor de pinning de virtual threads ativo (limite {} ms).", threshold.toMillis());
+        } catch (Exception e) {
+            log.warn("Não foi possível iniciar o monitor de pinning via JFR: {}", e.getMessage());
+        }
+    }
+
+    public long pinnedEvents() {
+        return pinnedEvents.get();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) stream.close();
+    }
+
+    private static String frame(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
@@ -5,7 +5,9 @@ import app.pi_fisio.dto.ExerciseFilterDTO;
 import app.pi_fisio.dto.ExercisePageDTO;
 import app.pi_fisio.entity.Intensity;
 import app.pi_fisio.entity.Joint;
+import app.pi_fisio.infra.metrics.QueryBudget;
 import app.pi_fisio.queryfilters.ExerciseQueryFilter;
+import app.pi_fisio.service.ExerciseCatalogVersion;
 import app.pi_fisio.service.ExerciseService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -15,26 +17,40 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
 import java.util.List;
 import java.util.Set;
+
+import static app.pi_fisio.infra.logging.LogMarkers.SAMPLED;
+
 @Log4j2
 @RestController
 @RequestMapping("/api/exercise")
 @Tag(name = "Exercício", description = "Endpoints para gestão dos Exercícios")
 public class ExerciseController {
 
+    // O cliente pode guardar a resposta, mas revalida sempre com If-None-Match (304 sem consultar o banco)
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+    // O lote inteiro fica numa transação e em memória: listas maiores devem ser divididas pelo cliente
+    static final int MAX_BATCH_SIZE = 500;
+
     @Autowired
     ExerciseService exerciseService;
+    @Autowired
+    ExerciseCatalogVersion catalogVersion;
 
     @Operation(summary = "Criar um novo exercício", description = "Apenas administradores podem criar exercícios.")
     @ApiResponses(value = {
@@ -43,6 +59,7 @@ public class ExerciseController {
     })
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
+    @QueryBudget(1)
     public ResponseEntity<ExerciseDTO> create(@RequestBody ExerciseDTO exerciseDTO) throws Exception {
         log.info("Recebida requisição para criar novo exercício.");
         ExerciseDTO response = exerciseService.create(exerciseDTO);
@@ -55,6 +72,20 @@ public class ExerciseController {
 
     }
 
+    @Operation(summary = "Criar vários exercícios", description = "Apenas administradores. Os exercícios são gravados numa única transação.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Exercícios criados com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Lote com mais de " + MAX_BATCH_SIZE + " exercícios", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Acesso negado", content = @Content)
+    })
+    // Sem @QueryBudget: o gerador de ids reserva um bloco (uma consulta) a cada 50 exercícios do lote
+    @PostMapping("/batch")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<ExerciseDTO>> createAll(@RequestBody @Size(max = MAX_BATCH_SIZE) List<ExerciseDTO> exerciseDTOs) {
+        log.info("Recebida requisição para criar {} exercícios.", exerciseDTOs.size());
+        return ResponseEntity.status(HttpStatus.CREATED).body(exerciseService.createAll(exerciseDTOs));
+    }
+
     @Operation(summary = "Atualizar um exercício", description = "Apenas administradores podem atualizar exercícios.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Exercício atualizado com sucesso"),
@@ -63,6 +94,7 @@ public class ExerciseController {
     })
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
+    @QueryBudget(2)
     public ResponseEntity<String> update(@PathVariable Long id, @RequestBody ExerciseDTO exerciseDTO) throws Exception {
         log.info("Recebida requisição para atualizar exercício ID {}", id);
         exerciseService.update(id, exerciseDTO);
@@ -78,6 +110,7 @@ public class ExerciseController {
     })
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
+    @QueryBudget(1)
     public ResponseEntity<String> delete(@PathVariable Long id) {
         log.info("Recebida requisição para deletar exercício ID {}", id);
         exerciseService.delete(id);
@@ -91,37 +124,67 @@ public class ExerciseController {
     })
     @GetMapping("/{id}")
 //    @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ExerciseDTO> getExerciseById(@PathVariable Long id) throws Exception {
-        log.info("Recebida requisição para buscar exercício ID {}", id);
+    @QueryBudget(1)
+    public ResponseEntity<ExerciseDTO> getExerciseById(@PathVariable Long id, WebRequest request) throws Exception {
+        String etag = catalogVersion.exerciseETag(id);
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
+        log.info(SAMPLED, "Recebida requisição para buscar exercício ID {}", id);
         ExerciseDTO response = exerciseService.findById(id);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok().eTag(ExerciseCatalogVersion.etag(response)).cacheControl(REVALIDATE).body(response);
     }
 
-    @Operation(summary = "Listar todos os exercícios com paginação e filtros")
+    @Operation(summary = "Listar todos os exercícios com paginação e filtros",
+            description = "Paginação por página (page/size) ou por cursor: envie 'after' (vazio na primeira página) "
+                    + "e use o 'nextCursor' da resposta para a próxima. No modo cursor não há contagem total. "
+                    + "'sort' aceita id ou name. Com withCount=false a contagem total não é calculada (use hasNext).")
     @GetMapping
 //    @PreAuthorize("hasRole('ADMIN')")
+    @QueryBudget(2)
     public ResponseEntity<ExercisePageDTO> getAll
             (@RequestParam(defaultValue = "0") @PositiveOrZero int page,
              @RequestParam(defaultValue = "10") @Positive @Max(100) int size,
-             @ModelAttribute ExerciseQueryFilter filter){
-        log.info("Recebida requisição para listar exercícios - Página: {}, Tamanho: {}", page, size);
+             @RequestParam(required = false) String after,
+             @RequestParam(required = false) String sort,
+             @RequestParam(defaultValue = "true") boolean withCount,
+             @ModelAttribute ExerciseQueryFilter filter,
+             WebRequest request){
+        // Lida antes dos dados: uma escrita concorrente no máximo faz o cliente buscar de novo
+        String etag = catalogVersion.catalogETag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        if (after != null) {
+            log.info(SAMPLED, "Recebida requisição para listar exercícios por cursor - Tamanho: {}", size);
+            return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE)
+                    .body(exerciseService.findAllKeyset(after, sort, size, filter));
+        }
+        log.info(SAMPLED, "Recebida requisição para listar exercícios - Página: {}, Tamanho: {}", page, size);
 
-        ExercisePageDTO response = exerciseService.findAll(page, size, filter);
-        return ResponseEntity.ok(response);
+        ExercisePageDTO response = exerciseService.findAll(page, size, filter, withCount);
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(response);
     }
 
     @Operation(summary = "Buscar exercícios por articulação e intensidade")
     @GetMapping("/findByJointAndIntensity")
-    public ResponseEntity<List<ExerciseDTO>> getByJointAndIntensity(@RequestParam Joint joint, @RequestParam Intensity intensity) throws Exception {
-        log.info("Recebida requisição para buscar exercícios - Articulação: {}, Intensidade: {}", joint, intensity);
+    @QueryBudget(1)
+    public ResponseEntity<List<ExerciseDTO>> getByJointAndIntensity(@RequestParam Joint joint, @RequestParam Intensity intensity,
+                                                                    WebRequest request) throws Exception {
+        String etag = catalogVersion.catalogETag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        log.info(SAMPLED, "Recebida requisição para buscar exercícios - Articulação: {}, Intensidade: {}", joint, intensity);
             List<ExerciseDTO> response = exerciseService.findByJointAndIntensity(joint, intensity);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(response);
     }
 
     @Operation(summary = "Buscar exercícios recomendados para um usuário")
     @GetMapping("/getByUser")
+    @QueryBudget(2)
     public ResponseEntity<List<ExerciseDTO>> getByUser(@RequestParam Long userId) throws Exception {
-        log.info("Recebida requisição para buscar exercícios recomendados para usuário ID {}", userId);
+        log.info(SAMPLED, "Recebida requisição para buscar exercícios recomendados para usuário ID {}", userId);
         List<ExerciseDTO> response = exerciseService.findByUser(userId);
         return ResponseEntity.ok(response);
     }
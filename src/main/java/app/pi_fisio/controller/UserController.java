@@ -1,11 +1,13 @@
 package app.pi_fisio.controller;
 
+import app.pi_fisio.auth.AuthenticatedUser;
 import app.pi_fisio.dto.ExercisePageDTO;
 import app.pi_fisio.dto.JointIntensityDTO;
 import app.pi_fisio.dto.UserDTO;
 import app.pi_fisio.dto.UserPageDTO;
 import app.pi_fisio.entity.JointIntensity;
 import app.pi_fisio.entity.User;
+import app.pi_fisio.infra.metrics.QueryBudget;
 import app.pi_fisio.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -20,6 +22,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
@@ -27,6 +30,8 @@ import java.net.URI;
 import java.util.List;
 import java.util.Map;
 
+import static app.pi_fisio.infra.logging.LogMarkers.SAMPLED;
+
 @Log4j2
 @RestController
 @RequestMapping("/api/user")
@@ -39,6 +44,7 @@ public class UserController {
     @Operation(summary = "Criar usuário", description = "Criação de um novo usuário, disponível apenas para ADMINs.")
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
+    @QueryBudget(2)
     public ResponseEntity<?> create(@RequestBody UserDTO userDTO) {
         log.info("Recebida requisição POST para criar usuário com email: {}", userDTO.getEmail());
         if (userDTO.getEmail() == null || userDTO.getEmail().isEmpty()) {
@@ -58,6 +64,7 @@ public class UserController {
     @Operation(summary = "Atualizar usuário", description = "Atualiza um usuário existente, disponível apenas para ADMINs.")
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
+    @QueryBudget(4)
     public ResponseEntity<UserDTO> update(@PathVariable Long id, @RequestBody UserDTO userDTO) {
         log.info("Recebida requisição  para atualizar usuário ID: {}", id);
         if (userDTO.getEmail() == null || userDTO.getEmail().isEmpty()) {
@@ -69,6 +76,7 @@ public class UserController {
     @Operation(summary = "Excluir usuário", description = "Exclui um usuário pelo ID, disponível apenas para ADMINs.")
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
+    @QueryBudget(2)
     public ResponseEntity<String> delete(@PathVariable Long id) {
         log.info("Recebida requisição para excluir usuário ID: {}", id);
        if (id == null || id.toString().isEmpty()){
@@ -80,22 +88,32 @@ public class UserController {
     @Operation(summary = "Buscar usuário por ID", description = "Busca um usuário específico pelo ID, disponível apenas para ADMINs.")
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
+    @QueryBudget(3)
     public ResponseEntity<UserDTO> getPersonById(@PathVariable Long id) {
-        log.info("Recebida requisição para buscar usuário ID: {}", id);
+        log.info(SAMPLED, "Recebida requisição para buscar usuário ID: {}", id);
         if (id == null || id.toString().isEmpty()){
             return ResponseEntity.badRequest().body(null);
         }
         return ResponseEntity.ok(userService.findById(id));
     }
 
-    @Operation(summary = "Listar usuários", description = "Retorna uma lista paginada de usuários, disponível apenas para ADMINs.")
+    @Operation(summary = "Listar usuários", description = "Retorna uma lista paginada de usuários, disponível apenas para ADMINs. "
+            + "Para paginação por cursor envie 'after' (vazio na primeira página) e use o 'nextCursor' da resposta; "
+            + "'sort' aceita id, name ou email.")
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
+    @QueryBudget(4)
     public ResponseEntity<UserPageDTO> getAll(
             @RequestParam(defaultValue = "0") @PositiveOrZero int page,
-            @RequestParam(defaultValue = "10") @Positive @Max(100) int size
+            @RequestParam(defaultValue = "10") @Positive @Max(100) int size,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String sort
     ) throws Exception {
-        log.info("Recebida requisição GET para listar usuários - Página: {}, Tamanho: {}", page, size);
+        if (after != null) {
+            log.info(SAMPLED, "Recebida requisição GET para listar usuários por cursor - Tamanho: {}", size);
+            return ResponseEntity.ok(userService.findAllKeyset(after, sort, size));
+        }
+        log.info(SAMPLED, "Recebida requisição GET para listar usuários - Página: {}, Tamanho: {}", page, size);
         UserPageDTO userPageDTO = userService.findAll(page,size);
         return ResponseEntity.ok(userPageDTO);
     }
@@ -105,13 +123,13 @@ public class UserController {
             @ApiResponse(responseCode = "200", description = "Lista de usuários retornada com sucesso")
     })
     @PatchMapping
+    @QueryBudget(3)
     public ResponseEntity<UserDTO> patchUpdateByJwt(
             @RequestBody UserDTO userDTO,
-            @RequestHeader("Authorization") String authorizationHeader)
+            @AuthenticationPrincipal AuthenticatedUser principal)
             throws Exception{
         log.info("Recebida requisição  para atualizar usuário autenticado.");
-        String jwt = authorizationHeader.substring(7);
-        UserDTO response = userService.patchUpdate(userDTO, jwt);
+        UserDTO response = userService.patchUpdate(userDTO, principal);
         log.info("Usuário atualizado parcialmente com sucesso. ID: {}", response.getId());
         return ResponseEntity.ok(response);
     }
@@ -121,13 +139,13 @@ public class UserController {
             @ApiResponse(responseCode = "200", description = "Usuário atualizado com sucesso")
     })
     @GetMapping("/info")
+    @QueryBudget(2)
     public ResponseEntity<UserDTO> getUserByJwt(
-            @RequestHeader("Authorization") String authorizationHeader)
+            @AuthenticationPrincipal AuthenticatedUser principal)
             throws Exception{
-        log.info("Recebida requisição  para buscar informações do usuário autenticado.");
-        String jwt = authorizationHeader.substring(7);
-        UserDTO response = userService.findUserByJwt(jwt);
-        log.info("Usuário autenticado encontrado: ID {}", response.getId());
+        log.info(SAMPLED, "Recebida requisição  para buscar informações do usuário autenticado.");
+        UserDTO response = userService.findAuthenticatedUser(principal);
+        log.info(SAMPLED, "Usuário autenticado encontrado: ID {}", response.getId());
         return ResponseEntity.ok(response);
     }
 }
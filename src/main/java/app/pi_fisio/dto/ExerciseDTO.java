@@ -4,8 +4,8 @@ package app.pi_fisio.dto;
 import app.pi_fisio.entity.Exercise;
 import app.pi_fisio.entity.Intensity;
 import app.pi_fisio.entity.Joint;
+import app.pi_fisio.helper.ExerciseMapper;
 import lombok.*;
-import org.springframework.beans.BeanUtils;
 
 @Getter
 @Setter
@@ -14,7 +14,7 @@ import org.springframework.beans.BeanUtils;
 @ToString
 public class ExerciseDTO {
     public ExerciseDTO(Exercise exercise){
-        BeanUtils.copyProperties(exercise,this);
+        ExerciseMapper.copy(exercise, this);
     }
 
     private Long id;
@@ -24,4 +24,10 @@ public class ExerciseDTO {
     private String videoUrl;
     private Joint joint;
     private Intensity intensity;
+    // Versão lida pelo cliente; enviada de volta no PUT para detectar edições concorrentes
+    private Long version;
+
+    public ExerciseDTO(Long id, String name, String description, String reps, String videoUrl, Joint joint, Intensity intensity) {
+        this(id, name, description, reps, videoUrl, joint, intensity, null);
+    }
 }
\ No newline at end of file
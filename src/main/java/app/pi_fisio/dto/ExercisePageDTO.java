@@ -2,5 +2,7 @@ package app.pi_fisio.dto;
 
 import java.util.List;
 
-public record ExercisePageDTO(List<ExerciseDTO> exercises, Long totalElements, int totalPages) {
+// Sem contagem (modo keyset ou withCount=false) totalElements e totalPages vêm nulos; hasNext sempre é preenchido.
+// No modo keyset nextCursor aponta para a próxima página.
+public record ExercisePageDTO(List<ExerciseDTO> exercises, Long totalElements, Integer totalPages, String nextCursor, boolean hasNext) {
 }
@@ -3,8 +3,8 @@ package app.pi_fisio.dto;
 import app.pi_fisio.entity.JointIntensity;
 import app.pi_fisio.entity.User;
 import app.pi_fisio.entity.UserRole;
+import app.pi_fisio.helper.UserMapper;
 import lombok.*;
-import org.springframework.beans.BeanUtils;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -24,8 +24,15 @@ public class UserDTO {
         private String subject;
         private List<String> classes;
         private List<JointIntensity> jointIntensities;
-        
+        // Versão lida pelo cliente; enviada de volta no PUT/PATCH para detectar edições concorrentes
+        private Long version;
+
         public UserDTO(User user){
-                BeanUtils.copyProperties(user, this);
+                UserMapper.copy(user, this);
+        }
+
+        public UserDTO(Long id, String pictureUrl, String name, String email, LocalDate dateOfBirth, UserRole role,
+                       String subject, List<String> classes, List<JointIntensity> jointIntensities) {
+                this(id, pictureUrl, name, email, dateOfBirth, role, subject, classes, jointIntensities, null);
         }
 }
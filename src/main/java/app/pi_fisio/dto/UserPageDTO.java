@@ -1,8 +1,11 @@
 package app.pi_fisio.dto;
 
-import app.pi_fisio.entity.User;
-
 import java.util.List;
 
-public record UserPageDTO(List<UserDTO> users, Long totalElements, int totalPages) {
+// No modo keyset (cursor) totalElements e totalPages vêm nulos e nextCursor aponta para a próxima página
+public record UserPageDTO(List<UserDTO> users, Long totalElements, Integer totalPages, String nextCursor) {
+
+    public UserPageDTO(List<UserDTO> users, Long totalElements, int totalPages) {
+        this(users, totalElements, (Integer) totalPages, null);
+    }
 }
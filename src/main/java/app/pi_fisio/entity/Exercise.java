@@ -2,13 +2,14 @@ package app.pi_fisio.entity;
 
 
 import app.pi_fisio.dto.ExerciseDTO;
+import app.pi_fisio.helper.ExerciseMapper;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
-import org.springframework.beans.BeanUtils;
 import lombok.*;
 
 @ToString
@@ -20,7 +21,10 @@ import lombok.*;
 @Entity
 public class Exercise {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "exercise_id")
+    @TableGenerator(name = "exercise_id", table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = IdGenerators.EXERCISE,
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     Long id;
 
     @NotNull
@@ -41,7 +45,17 @@ public class Exercise {
     @NotNull
     private Intensity intensity;
 
+    // Controle de concorrência otimista: toda escrita confere e incrementa a versão
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private Long version;
+
+    public Exercise(Long id, String name, String description, String reps, String videoUrl, Joint joint, Intensity intensity) {
+        this(id, name, description, reps, videoUrl, joint, intensity, null);
+    }
+
     public Exercise(ExerciseDTO exerciseDTO){
-        BeanUtils.copyProperties(exerciseDTO,this);
+        ExerciseMapper.copy(exerciseDTO, this);
     }
 }
@@ -0,0 +1,26 @@
+package app.pi_fisio.entity;
+
+/**
+ * Geradores de id das entidades: uma tabela com um contador por entidade, lida em blocos de ALLOCATION_SIZE
+ * (otimizador pooled-lo, ver hibernate.id.optimizer.pooled.preferred). Diferente de IDENTITY, o id é conhecido
+ * antes do INSERT, o que permite ao Hibernate enviar os INSERTs em lote (hibernate.jdbc.batch_size).
+ * O MySQL não tem sequences, por isso a tabela.
+ * <p>
+ * O Hibernate reserva cada bloco numa transação isolada, com uma segunda conexão do pool, enquanto a transação
+ * da requisição segura a primeira. Por isso o pool precisa de uma conexão sobrando além das threads que
+ * gravam (ver ConnectionPoolSizingCheck); com o pool esgotado a reserva espera o connection-timeout.
+ */
+public final class IdGenerators {
+
+    public static final String TABLE = "id_generator";
+    public static final String NAME_COLUMN = "sequence_name";
+    public static final String VALUE_COLUMN = "next_val";
+    public static final int ALLOCATION_SIZE = 50;
+
+    public static final String EXERCISE = "exercise";
+    public static final String USER = "users";
+    public static final String JOINT_INTENSITY = "joint_intensity";
+
+    private IdGenerators() {
+    }
+}
@@ -16,9 +16,13 @@ import lombok.*;
 @AllArgsConstructor
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_joint_intensity_user_joint", columnNames = {"user_id", "joint"}))
 public class JointIntensity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "joint_intensity_id")
+    @TableGenerator(name = "joint_intensity_id", table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = IdGenerators.JOINT_INTENSITY,
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     @Enumerated(EnumType.STRING)
@@ -2,12 +2,14 @@ package app.pi_fisio.entity;
 
 
 import app.pi_fisio.dto.UserDTO;
+import app.pi_fisio.helper.UserMapper;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.*;
-import org.springframework.beans.BeanUtils;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -30,7 +32,10 @@ import lombok.*;
 @Table(name = "Users")
 public class User implements UserDetails {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "user_id")
+    @TableGenerator(name = "user_id", table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = IdGenerators.USER,
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     @NotNull
@@ -52,12 +57,29 @@ public class User implements UserDetails {
     @ElementCollection
     @CollectionTable(name = "user_classes", joinColumns = @JoinColumn(name = "user_id"))
     @Column(name = "class")
+    @BatchSize(size = 100)
+    @ToString.Exclude
     private List<String> classes;
 
-    @OneToMany(mappedBy = "user",fetch= FetchType.EAGER, cascade = CascadeType.ALL, orphanRemoval = true)
+    // LAZY: quem precisa declara o fetch (@EntityGraph no UserRepository); numa página de usuários o
+    // @BatchSize carrega as intensidades de até 100 usuários numa consulta só, em vez de uma por usuário
+    @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
     @JsonManagedReference
+    @ToString.Exclude
     private List<JointIntensity> jointIntensities;
 
+    // Controle de concorrência otimista: o UPDATE confere a versão lida, sem SELECT extra
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private Long version;
+
+    public User(Long id, String name, LocalDate dateOfBirth, String email, String userId, String pictureUrl, UserRole role,
+                String subject, List<String> classes, List<JointIntensity> jointIntensities) {
+        this(id, name, dateOfBirth, email, userId, pictureUrl, role, subject, classes, jointIntensities, null);
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         if(this.role == UserRole.ADMIN) return List.of(new SimpleGrantedAuthority("ROLE_ADMIN"),new SimpleGrantedAuthority("ROLE_USER"));
@@ -101,6 +123,6 @@ public class User implements UserDetails {
     }
 
     public User(UserDTO userDTO){
-        BeanUtils.copyProperties(userDTO, this);
+        UserMapper.copy(userDTO, this);
     }
 }
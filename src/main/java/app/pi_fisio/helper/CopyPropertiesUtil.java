@@ -7,6 +7,10 @@ import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * @deprecated usa reflexão a cada chamada; use {@link UserMapper#copyNonNull}. Mantido para comparação nos benchmarks.
+ */
+@Deprecated
 @Component
 // https://stackoverflow.com/questions/17417345/beanutils-copyproperties-api-to-ignore-null-and-specific-propertie
 public class CopyPropertiesUtil {
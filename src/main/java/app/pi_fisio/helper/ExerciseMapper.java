@@ -0,0 +1,36 @@
+package app.pi_fisio.helper;
+
+import app.pi_fisio.dto.ExerciseDTO;
+import app.pi_fisio.entity.Exercise;
+
+/**
+ * Cópia campo a campo entre Exercise e ExerciseDTO, sem reflexão (antes era BeanUtils.copyProperties).
+ * Ao adicionar um campo em Exercise/ExerciseDTO, inclua-o aqui também (MapperTest compara com o BeanUtils).
+ */
+public final class ExerciseMapper {
+
+    private ExerciseMapper() {
+    }
+
+    public static void copy(Exercise source, ExerciseDTO target) {
+        target.setId(source.getId());
+        target.setName(source.getName());
+        target.setDescription(source.getDescription());
+        target.setReps(source.getReps());
+        target.setVideoUrl(source.getVideoUrl());
+        target.setJoint(source.getJoint());
+        target.setIntensity(source.getIntensity());
+        target.setVersion(source.getVersion());
+    }
+
+    public static void copy(ExerciseDTO source, Exercise target) {
+        target.setId(source.getId());
+        target.setName(source.getName());
+        target.setDescription(source.getDescription());
+        target.setReps(source.getReps());
+        target.setVideoUrl(source.getVideoUrl());
+        target.setJoint(source.getJoint());
+        target.setIntensity(source.getIntensity());
+        target.setVersion(source.getVersion());
+    }
+}
@@ -0,0 +1,82 @@
+package app.pi_fisio.helper;
+
+import app.pi_fisio.infra.exception.InvalidCursorException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cursor opaco da paginação por keyset (seek): guarda a chave de ordenação e o id do último item da página.
+ * Formato antes do Base64: "sortKey\nvalor\nid".
+ */
+public final class KeysetCursor {
+
+    public static final String ID = "id";
+
+    private KeysetCursor() {
+    }
+
+    public static Sort sort(String sortKey, Set<String> allowedSortKeys) {
+        String key = normalizeSortKey(sortKey, allowedSortKeys);
+        return ID.equals(key) ? Sort.by(ID) : Sort.by(key).and(Sort.by(ID));
+    }
+
+    public static ScrollPosition decode(String cursor, String sortKey, Set<String> allowedSortKeys) {
+        String key = normalizeSortKey(sortKey, allowedSortKeys);
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException();
+        }
+        int first = decoded.indexOf('\n');
+        int last = decoded.lastIndexOf('\n');
+        if (first < 0 || first == last || !decoded.substring(0, first).equals(key)) {
+            throw new InvalidCursorException();
+        }
+
+        Map<String, Object> keys = new LinkedHashMap<>();
+        if (!ID.equals(key)) {
+            keys.put(key, decoded.substring(first + 1, last));
+        }
+        try {
+            keys.put(ID, Long.valueOf(decoded.substring(last + 1)));
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException();
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    /**
+     * Cursor para a próxima página, ou null se esta for a última.
+     */
+    public static String next(Window<?> window, String sortKey, Set<String> allowedSortKeys) {
+        if (!window.hasNext() || window.isEmpty()) {
+            return null;
+        }
+        String key = normalizeSortKey(sortKey, allowedSortKeys);
+        Map<String, Object> keys = ((KeysetScrollPosition) window.positionAt(window.size() - 1)).getKeys();
+        Object value = ID.equals(key) ? "" : keys.get(key);
+        String raw = key + "\n" + value + "\n" + keys.get(ID);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String normalizeSortKey(String sortKey, Set<String> allowedSortKeys) {
+        String key = sortKey == null || sortKey.isBlank() ? ID : sortKey;
+        if (!allowedSortKeys.contains(key)) {
+            throw new InvalidCursorException("Sort key '" + key + "' is not supported. Use one of: " + allowedSortKeys);
+        }
+        return key;
+    }
+}
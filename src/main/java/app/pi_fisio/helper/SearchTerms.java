@@ -0,0 +1,40 @@
+package app.pi_fisio.helper;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Termos da busca de exercícios por nome, usados pelo ExerciseSearchIndex e pela consulta equivalente
+ * no banco (ExerciseSpec.matchesTerms): texto sem acento, em minúsculas, separado em letras e números.
+ */
+public final class SearchTerms {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private SearchTerms() {
+    }
+
+    /**
+     * Remove acentos, passa para minúsculas e apara espaços: "  Rotação de OMBRO " -> "rotacao de ombro".
+     */
+    public static String normalize(String text) {
+        if (text == null) return "";
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return folded.toLowerCase(Locale.ROOT).trim();
+    }
+
+    /**
+     * "Rotação de OMBRO" -> [rotacao, de, ombro]; os termos só têm letras e números.
+     */
+    public static List<String> tokenize(String text) {
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) return List.of();
+        return Arrays.stream(SEPARATORS.split(normalized))
+                .filter(term -> !term.isEmpty())
+                .toList();
+    }
+}
@@ -0,0 +1,67 @@
+package app.pi_fisio.helper;
+
+import app.pi_fisio.dto.UserDTO;
+import app.pi_fisio.entity.User;
+
+import java.util.ArrayList;
+
+/**
+ * Cópia campo a campo entre User e UserDTO, sem reflexão (antes era BeanUtils.copyProperties).
+ * Ao adicionar um campo em User/UserDTO, inclua-o aqui também (MapperTest compara com o BeanUtils).
+ */
+public final class UserMapper {
+
+    private UserMapper() {
+    }
+
+    public static void copy(User source, UserDTO target) {
+        target.setId(source.getId());
+        target.setPictureUrl(source.getPictureUrl());
+        target.setName(source.getName());
+        target.setEmail(source.getEmail());
+        target.setDateOfBirth(source.getDateOfBirth());
+        target.setRole(source.getRole());
+        target.setSubject(source.getSubject());
+        // Cópias: as coleções LAZY são carregadas aqui, dentro da transação, e não na serialização
+        target.setClasses(source.getClasses() == null ? null : new ArrayList<>(source.getClasses()));
+        target.setJointIntensities(source.getJointIntensities() == null ? null : new ArrayList<>(source.getJointIntensities()));
+        target.setVersion(source.getVersion());
+    }
+
+    public static void copy(UserDTO source, User target) {
+        target.setId(source.getId());
+        target.setPictureUrl(source.getPictureUrl());
+        target.setName(source.getName());
+        target.setEmail(source.getEmail());
+        target.setDateOfBirth(source.getDateOfBirth());
+        target.setRole(source.getRole());
+        target.setSubject(source.getSubject());
+        target.setClasses(source.getClasses());
+        target.setJointIntensities(source.getJointIntensities());
+        target.setVersion(source.getVersion());
+    }
+
+    // Usado no PUT: os campos simples do DTO, sem id, userId e coleções
+    public static void copyDetails(UserDTO source, User target) {
+        target.setPictureUrl(source.getPictureUrl());
+        target.setName(source.getName());
+        target.setEmail(source.getEmail());
+        target.setDateOfBirth(source.getDateOfBirth());
+        target.setRole(source.getRole());
+        target.setSubject(source.getSubject());
+    }
+
+    // Usado no PATCH: copia apenas os campos não nulos de source para target (substitui o CopyPropertiesUtil)
+    public static void copyNonNull(User source, User target) {
+        if (source.getId() != null) target.setId(source.getId());
+        if (source.getName() != null) target.setName(source.getName());
+        if (source.getDateOfBirth() != null) target.setDateOfBirth(source.getDateOfBirth());
+        if (source.getEmail() != null) target.setEmail(source.getEmail());
+        if (source.getUserId() != null) target.setUserId(source.getUserId());
+        if (source.getPictureUrl() != null) target.setPictureUrl(source.getPictureUrl());
+        if (source.getRole() != null) target.setRole(source.getRole());
+        if (source.getSubject() != null) target.setSubject(source.getSubject());
+        if (source.getClasses() != null) target.setClasses(source.getClasses());
+        if (source.getJointIntensities() != null) target.setJointIntensities(source.getJointIntensities());
+    }
+}
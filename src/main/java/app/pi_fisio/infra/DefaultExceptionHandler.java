@@ -1,20 +1,27 @@
 package app.pi_fisio.infra;
 
 import app.pi_fisio.infra.exception.ExerciseNotFoundException;
+import app.pi_fisio.infra.exception.InvalidCursorException;
 import app.pi_fisio.infra.exception.InvalidGoogleTokenException;
 import app.pi_fisio.infra.exception.NoJointIntensitiesException;
+import app.pi_fisio.infra.exception.QueryBudgetExceededException;
 import app.pi_fisio.infra.exception.UserNotFoundException;
 import com.auth0.jwt.exceptions.JWTCreationException;
 import com.auth0.jwt.exceptions.JWTDecodeException;
 import com.auth0.jwt.exceptions.TokenExpiredException;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.ConstraintViolationException;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
+
+import java.util.concurrent.RejectedExecutionException;
 @Log4j2
 @RestControllerAdvice
 public class DefaultExceptionHandler extends ResponseEntityExceptionHandler {
@@ -33,6 +40,20 @@ public class DefaultExceptionHandler extends ResponseEntityExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
     }
 
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<DefaultErrorMessage> optimisticLockingHandler(OptimisticLockingFailureException exception) {
+        log.warn("Concurrent modification: {}", exception.getMessage());
+        DefaultErrorMessage error = new DefaultErrorMessage(HttpStatus.CONFLICT.value(), "The resource was modified by another request, reload and try again.", exception.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<DefaultErrorMessage> constraintViolationHandler(ConstraintViolationException exception) {
+        log.warn("Invalid request body: {}", exception.getMessage());
+        DefaultErrorMessage error = new DefaultErrorMessage(HttpStatus.BAD_REQUEST.value(), "Invalid request body.", exception.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
     @ExceptionHandler(NoJointIntensitiesException.class)
     public ResponseEntity<DefaultErrorMessage> noJointIntensitiesHandler(NoJointIntensitiesException exception) {
         log.error("Exercises not found (no joint intensities): {}", exception.getMessage(), exception);
@@ -40,6 +61,13 @@ public class DefaultExceptionHandler extends ResponseEntityExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<DefaultErrorMessage> invalidCursorHandler(InvalidCursorException exception) {
+        log.warn("Invalid pagination cursor: {}", exception.getMessage());
+        DefaultErrorMessage error = new DefaultErrorMessage(HttpStatus.BAD_REQUEST.value(), "Invalid cursor.", exception.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
     @ExceptionHandler(InvalidGoogleTokenException.class)
     public ResponseEntity<DefaultErrorMessage> invalidGoogleTokenHandler(InvalidGoogleTokenException exception) {
         log.warn("Invalid Google token: {}", exception.getMessage());
@@ -47,6 +75,21 @@ public class DefaultExceptionHandler extends ResponseEntityExceptionHandler {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
     }
 
+    // Só chega aqui com query.budget.fail=true (testes); em produção o estouro é apenas logado
+    @ExceptionHandler(QueryBudgetExceededException.class)
+    public ResponseEntity<DefaultErrorMessage> queryBudgetHandler(QueryBudgetExceededException exception) {
+        log.error("Query budget exceeded: {}", exception.getMessage(), exception);
+        DefaultErrorMessage error = new DefaultErrorMessage(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Query budget exceeded.", exception.getMessage());
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<DefaultErrorMessage> rejectedExecutionHandler(RejectedExecutionException exception) {
+        log.warn("Executor saturated: {}", exception.getMessage());
+        DefaultErrorMessage error = new DefaultErrorMessage(HttpStatus.SERVICE_UNAVAILABLE.value(), "Service busy, try again.", exception.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(error);
+    }
+
     @ExceptionHandler(JWTDecodeException.class)
     public ResponseEntity<DefaultErrorMessage> jwtDecodeHandler(JWTDecodeException exception) {
         log.warn("JWT decode error: {}", exception.getMessage());
@@ -0,0 +1,11 @@
+package app.pi_fisio.infra.exception;
+
+public class InvalidCursorException extends RuntimeException{
+    public InvalidCursorException() {
+        super("The provided pagination cursor is invalid.");
+    }
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
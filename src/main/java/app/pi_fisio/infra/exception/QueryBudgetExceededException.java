@@ -0,0 +1,7 @@
+package app.pi_fisio.infra.exception;
+
+public class QueryBudgetExceededException extends RuntimeException{
+    public QueryBudgetExceededException(int budget, String sql) {
+        super("Query budget of " + budget + " selects exceeded by: " + sql);
+    }
+}
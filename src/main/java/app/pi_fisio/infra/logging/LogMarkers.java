@@ -0,0 +1,21 @@
+package app.pi_fisio.infra.logging;
+
+import org.apache.logging.log4j.Marker;
+import org.apache.logging.log4j.MarkerManager;
+
+/**
+ * Markers de log da aplicação. A ponte log4j-to-slf4j repassa o marker (pelo nome) até os filtros do logback.
+ */
+public final class LogMarkers {
+
+    public static final String SAMPLED_NAME = "SAMPLED";
+
+    /**
+     * Linhas repetidas a cada requisição de leitura ou autenticação: podem ser amostradas pelo
+     * SamplingTurboFilter (logging.sampling.rate). Escritas, remoções e avisos não usam o marker e sempre aparecem.
+     */
+    public static final Marker SAMPLED = MarkerManager.getMarker(SAMPLED_NAME);
+
+    private LogMarkers() {
+    }
+}
@@ -0,0 +1,51 @@
+package app.pi_fisio.infra.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limita os eventos de um logger a "maxPerSecond" por segundo; o excedente é descartado.
+ * Usado no log de SQL do Hibernate (perfil sql-log), que sob carga geraria uma linha por statement.
+ */
+public class RateLimitingTurboFilter extends TurboFilter {
+
+    private String logger;
+    private int maxPerSecond = 50;
+
+    private final AtomicLong currentSecond = new AtomicLong();
+    private final AtomicInteger count = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public void setLogger(String logger) {
+        this.logger = logger;
+    }
+
+    public void setMaxPerSecond(int maxPerSecond) {
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (format == null || this.logger == null || !logger.getName().startsWith(this.logger)) return FilterReply.NEUTRAL;
+        if (!level.isGreaterOrEqual(logger.getEffectiveLevel())) return FilterReply.NEUTRAL;
+
+        long second = System.currentTimeMillis() / 1000;
+        long current = currentSecond.get();
+        if (second != current && currentSecond.compareAndSet(current, second)) {
+            count.set(0);
+        }
+        if (count.incrementAndGet() <= maxPerSecond) return FilterReply.NEUTRAL;
+        dropped.incrementAndGet();
+        return FilterReply.DENY;
+    }
+}
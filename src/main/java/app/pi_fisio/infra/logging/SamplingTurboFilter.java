@@ -0,0 +1,50 @@
+package app.pi_fisio.infra.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Amostragem das linhas INFO/DEBUG/TRACE marcadas com {@link LogMarkers#SAMPLED}: passa 1 de cada "rate" eventos,
+ * contados por logger e nível. Linhas sem o marker (escritas, remoções, eventos raros) e WARN/ERROR passam sempre.
+ * Roda antes do evento ser criado, então o descarte é quase de graça. Configurado no logback-spring.xml
+ * (logging.sampling.rate).
+ * <p>
+ * A contagem não é por mensagem: com @Log4j2 a ponte log4j-to-slf4j entrega a mensagem já formatada (com ids e
+ * e-mails), e uma chave por mensagem cresceria sem limite e deixaria passar toda linha com um id novo.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private static final int MAX_LOGGERS = 1024;
+
+    // Por logger, um contador para cada nível abaixo de WARN (TRACE, DEBUG, INFO)
+    private final ConcurrentHashMap<String, AtomicLongArray> counters = new ConcurrentHashMap<>();
+    private int rate = 1;
+
+    public void setRate(int rate) {
+        this.rate = Math.max(rate, 1);
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // format nulo: é uma consulta isXxxEnabled(), não um evento
+        if (rate == 1 || format == null || level.isGreaterOrEqual(Level.WARN)) return FilterReply.NEUTRAL;
+        if (marker == null || !marker.contains(LogMarkers.SAMPLED_NAME)) return FilterReply.NEUTRAL;
+        // Eventos abaixo do nível do logger seriam descartados de qualquer forma e não contam na amostra
+        if (!level.isGreaterOrEqual(logger.getEffectiveLevel())) return FilterReply.NEUTRAL;
+
+        AtomicLongArray byLevel = counters.get(logger.getName());
+        if (byLevel == null) {
+            // Os loggers são as classes da aplicação, o limite só protege contra loggers criados dinamicamente
+            if (counters.size() >= MAX_LOGGERS) counters.clear();
+            byLevel = counters.computeIfAbsent(logger.getName(), key -> new AtomicLongArray(3));
+        }
+        long count = byLevel.getAndIncrement(Math.min(level.toInt() / Level.DEBUG_INT, 2));
+        return count % rate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+}
@@ -0,0 +1,17 @@
+package app.pi_fisio.infra.metrics;
+
+import java.lang.annotation.*;
+
+/**
+ * Máximo de consultas (SELECT) que o endpoint pode executar, independente do volume de dados.
+ * Passar do orçamento (um N+1, uma coleção carregada por item) lança QueryBudgetExceededException na consulta
+ * excedente com query.budget.fail=true (testes) ou loga um aviso com a pilha dessa consulta (produção).
+ * Em um controller vale para todos os métodos que não declaram o seu.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface QueryBudget {
+
+    int value();
+}
@@ -0,0 +1,88 @@
+package app.pi_fisio.infra.metrics;
+
+import app.pi_fisio.infra.exception.QueryBudgetExceededException;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Conta os statements SQL que o Hibernate prepara na thread atual, entre {@link #start()} e {@link #stop()}.
+ * Registrado em hibernate.session_factory.statement_inspector; fora de uma contagem o custo é um ThreadLocal.get().
+ * Statements executados em outras threads (ex.: o executor de login) não entram na contagem da requisição.
+ */
+public class QueryCounter implements StatementInspector {
+
+    private static final ThreadLocal<Count> COUNT = new ThreadLocal<>();
+
+    public static void start() {
+        COUNT.set(new Count());
+    }
+
+    /**
+     * Encerra a contagem da thread e retorna o total; 0 se nenhuma contagem estava ativa.
+     */
+    public static int stop() {
+        Count count = COUNT.get();
+        COUNT.remove();
+        return count == null ? 0 : count.value;
+    }
+
+    public static int current() {
+        Count count = COUNT.get();
+        return count == null ? 0 : count.value;
+    }
+
+    /**
+     * Quantos dos statements contados são consultas (SELECT).
+     */
+    public static int queries() {
+        Count count = COUNT.get();
+        return count == null ? 0 : count.queries;
+    }
+
+    /**
+     * Limita a "budget" as consultas a partir de agora (ver {@link QueryBudget}). Com fail, a consulta excedente
+     * lança QueryBudgetExceededException; sem, a exceção só é guardada com a pilha e fica em {@link #exceeded()}.
+     */
+    public static void budget(int budget, boolean fail) {
+        Count count = COUNT.get();
+        if (count == null) return;
+        count.budget = budget;
+        count.limit = count.queries + budget;
+        count.fail = fail;
+        count.exceeded = null;
+    }
+
+    public static QueryBudgetExceededException exceeded() {
+        Count count = COUNT.get();
+        return count == null ? null : count.exceeded;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Count count = COUNT.get();
+        if (count == null) return sql;
+        count.value++;
+        // INSERT/UPDATE/DELETE variam com o corpo da requisição (e vão em lote); o N+1 aparece nas consultas
+        if (sql.regionMatches(true, 0, "select", 0, 6) && ++count.queries > count.limit) {
+            count.exceed(sql);
+        }
+        return sql;
+    }
+
+    private static class Count {
+        int value;
+        int queries;
+        int limit = Integer.MAX_VALUE;
+        int budget;
+        boolean fail;
+        QueryBudgetExceededException exceeded;
+
+        void exceed(String sql) {
+            // Só a primeira consulta excedente: a pilha dela mostra de onde vem o N+1
+            limit = Integer.MAX_VALUE;
+            exceeded = new QueryBudgetExceededException(budget, sql);
+            if (fail) {
+                throw exceeded;
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package app.pi_fisio.infra.metrics;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Tempos das fases de uma requisição, devolvidos no cabeçalho Server-Timing (ver ServerTimingFilter).
+ * Só existe na thread quando a requisição pediu o cabeçalho; sem ele {@link #current()} retorna null
+ * e cada ponto de medição custa um ThreadLocal.get().
+ */
+public class ServerTiming {
+
+    public static final String REQUEST_HEADER = "X-Server-Timing";
+    public static final String RESPONSE_HEADER = "Server-Timing";
+
+    private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+
+    private final long start = System.nanoTime();
+    private final Map<Phase, Long> phases = new EnumMap<>(Phase.class);
+    private boolean allowed;
+    private long handlerStart;
+    private long bodyStart;
+    private int statements = -1;
+
+    public static ServerTiming start() {
+        ServerTiming timing = new ServerTiming();
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    public static ServerTiming current() {
+        return CURRENT.get();
+    }
+
+    public void add(Phase phase, long nanos) {
+        phases.merge(phase, nanos, Long::sum);
+    }
+
+    /**
+     * O cabeçalho só é devolvido para ADMIN: expõe detalhes internos da aplicação.
+     */
+    public void allow() {
+        allowed = true;
+    }
+
+    public boolean isAllowed() {
+        return allowed;
+    }
+
+    public void handlerStarted() {
+        handlerStart = System.nanoTime();
+    }
+
+    public void bodyStarted(int statements) {
+        bodyStart = System.nanoTime();
+        this.statements = statements;
+    }
+
+    /**
+     * Valor do cabeçalho, em ms: jwt;dur=0.31, user;dur=1.20, db;dur=4.80, sql;desc="6 statements", app;dur=0.90, json;dur=0.40, total;dur=8.10
+     * "app" é o tempo do controller e do service fora dos repositórios (regras e mapeamento para DTO).
+     */
+    public String header() {
+        long end = System.nanoTime();
+        StringJoiner header = new StringJoiner(", ");
+        append(header, Phase.JWT, phases.get(Phase.JWT), null);
+        append(header, Phase.USER, phases.get(Phase.USER), null);
+        append(header, Phase.DB, phases.get(Phase.DB), null);
+        if (statements >= 0) {
+            header.add("sql;desc=\"" + statements + " statements\"");
+        }
+        if (handlerStart > 0 && bodyStart > 0) {
+            long repositories = phases.getOrDefault(Phase.USER, 0L) + phases.getOrDefault(Phase.DB, 0L);
+            append(header, Phase.APP, Math.max(0, bodyStart - handlerStart - repositories), null);
+            append(header, Phase.JSON, end - bodyStart, null);
+        }
+        append(header, Phase.TOTAL, end - start, null);
+        return header.toString();
+    }
+
+    private static void append(StringJoiner header, Phase phase, Long nanos, String description) {
+        if (nanos == null) return;
+        String metric = phase.name().toLowerCase(Locale.ROOT) + ";dur=" + String.format(Locale.ROOT, "%.2f", nanos / 1e6);
+        header.add(description == null ? metric : metric + ";desc=\"" + description + "\"");
+    }
+
+    public enum Phase {
+        JWT, USER, DB, APP, JSON, TOTAL
+    }
+}
@@ -3,6 +3,7 @@ package app.pi_fisio.queryfilters;
 import app.pi_fisio.entity.Exercise;
 import app.pi_fisio.entity.Intensity;
 import app.pi_fisio.entity.Joint;
+import app.pi_fisio.helper.SearchTerms;
 import app.pi_fisio.specifications.ExerciseSpec;
 import lombok.Data;
 import org.springframework.data.jpa.domain.Specification;
@@ -18,8 +19,16 @@ public class ExerciseQueryFilter {
     private Set<Joint> joints;
     private Set<Intensity> intensities;
 
+    // Sem o índice de busca: o nome é buscado no banco com a mesma regra do índice (ExerciseSpec.matchesTerms)
     public Specification<Exercise> toSpecification(){
-        return nameContains(name)
+        return matchesTerms(SearchTerms.tokenize(name))
+                .and(hasIntensities(intensities))
+                .and(hasJoints(joints));
+    }
+
+    // O nome já foi resolvido para ids pelo ExerciseSearchIndex, o banco só aplica os demais filtros
+    public Specification<Exercise> toSpecification(Set<Long> nameMatchIds){
+        return idIn(nameMatchIds)
                 .and(hasIntensities(intensities))
                 .and(hasJoints(joints));
     }
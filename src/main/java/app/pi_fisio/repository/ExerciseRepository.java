@@ -5,7 +5,10 @@ import app.pi_fisio.entity.Intensity;
 import app.pi_fisio.entity.Joint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -16,4 +19,32 @@ public interface ExerciseRepository extends
 
     @Query("SELECT e FROM Exercise e WHERE e.joint = :joint AND e.intensity = :intensity")
     public Optional<List<Exercise> > findByJointAndIntensity(Joint joint, Intensity intensity);
+
+    /**
+     * Atualiza sem ler antes e incrementa a versão. Com version informada só atualiza se ela ainda for a atual.
+     * Retorna as linhas afetadas: 0 quando o exercício não existe ou a versão mudou.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Exercise e SET e.name = :#{#exercise.name}, e.description = :#{#exercise.description}, "
+            + "e.reps = :#{#exercise.reps}, e.videoUrl = :#{#exercise.videoUrl}, e.joint = :#{#exercise.joint}, "
+            + "e.intensity = :#{#exercise.intensity}, e.version = e.version + 1 "
+            + "WHERE e.id = :id AND (:version IS NULL OR e.version = :version)")
+    int update(@Param("id") Long id, @Param("version") Long version, @Param("exercise") Exercise exercise);
+
+    // Só id e versão de todos os exercícios, para os ETags do catálogo (ExerciseCatalogVersion)
+    @Query("SELECT e.id AS id, e.version AS version FROM Exercise e")
+    List<IdVersion> findAllVersions();
+
+    // DELETE direto, sem o SELECT do deleteById; retorna 0 quando o exercício não existe
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Exercise e WHERE e.id = :id")
+    int removeById(@Param("id") Long id);
+
+    interface IdVersion {
+        Long getId();
+
+        Long getVersion();
+    }
 }
@@ -1,16 +1,37 @@
 package app.pi_fisio.repository;
 
+import app.pi_fisio.auth.AuthenticatedUser;
 import app.pi_fisio.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
-public interface UserRepository extends JpaRepository<User,Long> {
+public interface UserRepository extends JpaRepository<User,Long>, JpaSpecificationExecutor<User> {
 
+    // Usado no /info e no PATCH, que devolvem as intensidades (as turmas vêm numa segunda consulta)
+    @EntityGraph(attributePaths = "jointIntensities")
     public Optional<User> findByEmail(String email);
 
+    // Recomendações de exercícios: só as intensidades
+    @EntityGraph(attributePaths = "jointIntensities")
+    Optional<User> findWithJointIntensitiesById(Long id);
+
     @Query("SELECT u FROM User u WHERE u.email = :email")
     Optional<User> findByEmail2(@Param("email") String email);
+
+    // Apenas as colunas necessárias para autenticação, sem as coleções do usuário
+    @Query("SELECT new app.pi_fisio.auth.AuthenticatedUser(u.id, u.email, u.role, u.userId) FROM User u WHERE u.email = :email")
+    Optional<AuthenticatedUser> findPrincipalByEmail(@Param("email") String email);
+
+    // Só troca se o valor ainda for o antigo; retorna 0 se outra requisição já tiver atualizado
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.userId = :newUserId, u.version = u.version + 1 WHERE u.id = :id AND u.userId = :oldUserId")
+    int updateUserId(@Param("id") Long id, @Param("oldUserId") String oldUserId, @Param("newUserId") String newUserId);
 }
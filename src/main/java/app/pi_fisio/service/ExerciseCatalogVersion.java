@@ -0,0 +1,119 @@
+package app.pi_fisio.service;
+
+import app.pi_fisio.dto.ExerciseDTO;
+import app.pi_fisio.repository.ExerciseRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Versões do catálogo de exercícios usadas nos ETags das consultas (GET condicional).
+ * A versão do catálogo muda a cada escrita no ExerciseService; a de cada exercício é a coluna @Version.
+ * Com elas o controller responde 304 a um If-None-Match sem consultar o banco.
+ * <p>
+ * As versões ficam na memória de cada instância. Escritas feitas por outra instância só são vistas no próximo
+ * {@link #load} (exercise.catalog.reload_ms), que também muda o ETag do catálogo se algo mudou no banco.
+ * Alterações direto no banco precisam incrementar a coluna version para invalidar o ETag do exercício.
+ */
+@Log4j2
+@Component
+public class ExerciseCatalogVersion {
+
+    @Autowired
+    ExerciseRepository exerciseRepository;
+
+    // Começa no horário de subida: ETags emitidos antes de um restart deixam de casar
+    private final AtomicLong catalog = new AtomicLong(System.currentTimeMillis());
+    private final ExerciseVersions exercises = new ExerciseVersions();
+    // false enquanto as versões ainda não foram carregadas
+    private volatile boolean loaded;
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        try {
+            load();
+        } catch (Exception e) {
+            log.error("Não foi possível carregar as versões dos exercícios, ETags por exercício só após a consulta: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recarrega a versão de cada exercício a partir do banco (só id e versão). O ETag do catálogo só muda
+     * se alguma versão mudou, por exemplo por uma escrita em outra instância.
+     */
+    @Scheduled(fixedDelayString = "${exercise.catalog.reload_ms:60000}", initialDelayString = "${exercise.catalog.reload_ms:60000}")
+    public void load() {
+        writeLock.lock();
+        try {
+            Map<Long, Long> before = exercises.snapshot();
+            exercises.reset();
+            for (ExerciseRepository.IdVersion exercise : exerciseRepository.findAllVersions()) {
+                exercises.put(exercise.getId(), exercise.getVersion());
+            }
+            Map<Long, Long> after = exercises.snapshot();
+            if (!loaded || !after.equals(before)) {
+                catalog.incrementAndGet();
+                log.info("Versões de {} exercícios carregadas para os ETags.", after.size());
+            }
+            loaded = true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * ETag das listagens: qualquer escrita no catálogo gera um novo.
+     */
+    public String catalogETag() {
+        return "catalog-" + catalog.get();
+    }
+
+    /**
+     * ETag do exercício, ou null quando ele não existe ou as versões ainda não foram carregadas.
+     */
+    public String exerciseETag(Long id) {
+        Long version = !loaded || id == null ? null : exercises.get(id);
+        return version == null ? null : etag(id, version);
+    }
+
+    public static String etag(ExerciseDTO exercise) {
+        return etag(exercise.getId(), exercise.getVersion() == null ? 0L : exercise.getVersion());
+    }
+
+    /**
+     * Registra a escrita: o catálogo muda sempre, a versão do exercício só avança (um put atrasado com versão
+     * menor, ou depois do delete, não volta o ETag para um conteúdo antigo).
+     */
+    public void put(ExerciseDTO exercise) {
+        if (exercise.getId() == null) return;
+        writeLock.lock();
+        try {
+            catalog.incrementAndGet();
+            exercises.put(exercise.getId(), exercise.getVersion());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        writeLock.lock();
+        try {
+            catalog.incrementAndGet();
+            exercises.remove(id);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static String etag(Long id, long version) {
+        return "exercise-" + id + "-" + version;
+    }
+}
@@ -0,0 +1,77 @@
+package app.pi_fisio.service;
+
+import app.pi_fisio.entity.Intensity;
+import app.pi_fisio.entity.Joint;
+import app.pi_fisio.helper.SearchTerms;
+import app.pi_fisio.queryfilters.ExerciseQueryFilter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache de curta duração do total de exercícios por filtro, para não repetir o COUNT a cada página.
+ * É limpo a cada escrita de exercício em ExerciseService. O total vale com ou sem o índice de busca, já que
+ * a busca no banco (ExerciseSpec.matchesTerms) segue a mesma regra do índice.
+ */
+@Component
+public class ExerciseCountCache {
+
+    private final Cache<Key, Total> cache;
+    // Muda a cada invalidação: um total contado antes dela não é mais servido, mesmo gravado depois
+    private final AtomicLong epoch = new AtomicLong();
+
+    public ExerciseCountCache(@Value("${exercise.count_cache.ttl_seconds:30}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(1_000)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    public Long get(ExerciseQueryFilter filter) {
+        Total total = cache.getIfPresent(Key.of(filter));
+        return total == null || total.epoch() != epoch.get() ? null : total.value();
+    }
+
+    /**
+     * Época atual, lida antes do COUNT e passada ao {@link #put}.
+     */
+    public long epoch() {
+        return epoch.get();
+    }
+
+    /**
+     * Guarda o total contado na época countedAt. Se uma escrita invalidou o cache depois disso, o total
+     * pode não contar essa escrita e nunca é servido.
+     */
+    public void put(ExerciseQueryFilter filter, long totalElements, long countedAt) {
+        if (countedAt != epoch.get()) return;
+        cache.put(Key.of(filter), new Total(totalElements, countedAt));
+    }
+
+    public void invalidateAll() {
+        epoch.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private record Total(long value, long epoch) {
+    }
+
+    // Filtro normalizado: nome como no índice de busca (sem acento, minúsculas), conjuntos vazios no lugar de null
+    record Key(String name, Set<Joint> joints, Set<Intensity> intensities) {
+        static Key of(ExerciseQueryFilter filter) {
+            String name = SearchTerms.normalize(filter.getName());
+            Set<Joint> joints = filter.getJoints() == null || filter.getJoints().isEmpty()
+                    ? EnumSet.noneOf(Joint.class) : EnumSet.copyOf(filter.getJoints());
+            Set<Intensity> intensities = filter.getIntensities() == null || filter.getIntensities().isEmpty()
+                    ? EnumSet.noneOf(Intensity.class) : EnumSet.copyOf(filter.getIntensities());
+            return new Key(name, joints, intensities);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package app.pi_fisio.service;
+
+import app.pi_fisio.dto.ExerciseDTO;
+import app.pi_fisio.entity.Exercise;
+import app.pi_fisio.entity.Intensity;
+import app.pi_fisio.entity.Joint;
+import app.pi_fisio.repository.ExerciseRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Índice em memória dos exercícios por (articulação, intensidade), usado nas recomendações.
+ * São 6 x 3 = 18 listas imutáveis. Cada escrita gera um novo snapshot (copy-on-write),
+ * então as leituras nunca bloqueiam, nem durante um rebuild completo.
+ * Escritas fora de ordem são resolvidas pela versão do exercício (ver ExerciseVersions).
+ */
+@Log4j2
+@Component
+public class ExerciseRecommendationIndex {
+
+    private static final int INTENSITIES = Intensity.values().length;
+    private static final int BUCKETS = Joint.values().length * INTENSITIES;
+    private static final Comparator<ExerciseDTO> BY_ID = Comparator.comparing(ExerciseDTO::getId);
+
+    @Autowired
+    ExerciseRepository exerciseRepository;
+
+    // null enquanto o índice ainda não foi montado
+    private volatile List<ExerciseDTO>[] buckets;
+    private final ExerciseVersions versions = new ExerciseVersions();
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("Não foi possível montar o índice de exercícios, usando o banco nas recomendações: {}", e.getMessage());
+        }
+    }
+
+    public boolean isReady() {
+        return buckets != null;
+    }
+
+    /**
+     * Retorna a lista imutável de exercícios do bucket, ou null se o índice ainda não estiver pronto.
+     */
+    public List<ExerciseDTO> get(Joint joint, Intensity intensity) {
+        List<ExerciseDTO>[] current = buckets;
+        return current == null ? null : current[bucket(joint, intensity)];
+    }
+
+    /**
+     * Recarrega todo o índice a partir do banco. Bloqueia apenas as outras escritas no índice.
+     */
+    public void rebuild() {
+        writeLock.lock();
+        try {
+            List<List<ExerciseDTO>> grouped = new ArrayList<>(BUCKETS);
+            for (int i = 0; i < BUCKETS; i++) {
+                grouped.add(new ArrayList<>());
+            }
+            versions.reset();
+            for (Exercise exercise : exerciseRepository.findAll()) {
+                if (!versions.put(exercise.getId(), exercise.getVersion())) continue;
+                if (exercise.getJoint() == null || exercise.getIntensity() == null) continue;
+                grouped.get(bucket(exercise.getJoint(), exercise.getIntensity())).add(new ExerciseDTO(exercise));
+            }
+
+            List<ExerciseDTO>[] rebuilt = newBuckets();
+            for (int i = 0; i < BUCKETS; i++) {
+                grouped.get(i).sort(BY_ID);
+                rebuilt[i] = List.copyOf(grouped.get(i));
+            }
+            buckets = rebuilt;
+            log.info("Índice de recomendações montado com {} exercícios.", grouped.stream().mapToInt(List::size).sum());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Insere ou substitui o exercício, removendo-o do bucket antigo caso a articulação ou intensidade tenham mudado.
+     * Ignorado se o índice já tem uma versão mais nova do exercício ou se ele foi removido.
+     */
+    public void put(ExerciseDTO exercise) {
+        if (exercise.getId() == null || exercise.getJoint() == null || exercise.getIntensity() == null) return;
+        writeLock.lock();
+        try {
+            List<ExerciseDTO>[] current = buckets;
+            if (current == null || !versions.put(exercise.getId(), exercise.getVersion())) return;
+
+            List<ExerciseDTO>[] updated = withoutExercise(current, exercise.getId());
+            int target = bucket(exercise.getJoint(), exercise.getIntensity());
+            List<ExerciseDTO> bucket = new ArrayList<>(updated[target]);
+            bucket.add(exercise);
+            bucket.sort(BY_ID);
+            updated[target] = List.copyOf(bucket);
+            buckets = updated;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        writeLock.lock();
+        try {
+            versions.remove(id);
+            List<ExerciseDTO>[] current = buckets;
+            if (current == null) return;
+            buckets = withoutExercise(current, id);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private List<ExerciseDTO>[] withoutExercise(List<ExerciseDTO>[] current, Long id) {
+        List<ExerciseDTO>[] updated = current.clone();
+        for (int i = 0; i < BUCKETS; i++) {
+            if (current[i].stream().anyMatch(e -> id.equals(e.getId()))) {
+                updated[i] = current[i].stream().filter(e -> !id.equals(e.getId())).toList();
+            }
+        }
+        return updated;
+    }
+
+    private static int bucket(Joint joint, Intensity intensity) {
+        return joint.ordinal() * INTENSITIES + intensity.ordinal();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<ExerciseDTO>[] newBuckets() {
+        return (List<ExerciseDTO>[]) new List[BUCKETS];
+    }
+}
@@ -0,0 +1,175 @@
+package app.pi_fisio.service;
+
+import app.pi_fisio.dto.ExerciseDTO;
+import app.pi_fisio.entity.Exercise;
+import app.pi_fisio.helper.SearchTerms;
+import app.pi_fisio.repository.ExerciseRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Índice invertido em memória sobre o nome e a descrição dos exercícios.
+ * Os termos são normalizados sem acento e em minúsculas ("Ombro" e "ombro" são o mesmo termo),
+ * e cada termo da busca casa por prefixo ("cerv" encontra "cervical").
+ * Os termos são os de {@link SearchTerms}; sem o índice (ainda não montado ou com muitos resultados) a mesma busca
+ * é feita no banco por ExerciseSpec.matchesTerms, que varre a tabela.
+ * Cada escrita gera um novo snapshot (copy-on-write): uma busca nunca vê um exercício no meio da reindexação.
+ */
+@Log4j2
+@Component
+public class ExerciseSearchIndex {
+
+    // Acima disso o "id IN (...)" teria parâmetros demais (prefixos de uma ou duas letras): cai na consulta
+    // equivalente no banco (ExerciseSpec.matchesTerms)
+    static final int MAX_MATCHES = 1000;
+
+    @Autowired
+    ExerciseRepository exerciseRepository;
+
+    // null enquanto o índice ainda não foi montado
+    private volatile Postings postings;
+    private final ExerciseVersions versions = new ExerciseVersions();
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("Não foi possível montar o índice de busca de exercícios, buscando no banco: {}", e.getMessage());
+        }
+    }
+
+    public boolean isReady() {
+        return postings != null;
+    }
+
+    /**
+     * Ids dos exercícios que contêm todos os termos da busca (por prefixo), ou null quando
+     * não há termos a buscar, o índice ainda não está pronto ou há mais de MAX_MATCHES ids.
+     */
+    public Set<Long> search(String query) {
+        Postings current = postings;
+        List<String> terms = SearchTerms.tokenize(query);
+        if (current == null || terms.isEmpty()) {
+            return null;
+        }
+
+        Set<Long> result = null;
+        for (String term : new LinkedHashSet<>(terms)) {
+            Set<Long> matches = new HashSet<>();
+            for (Set<Long> ids : current.byTerm().subMap(term, true, term + Character.MAX_VALUE, true).values()) {
+                matches.addAll(ids);
+            }
+            if (result == null) {
+                result = matches;
+            } else {
+                result.retainAll(matches);
+            }
+            if (result.isEmpty()) break;
+        }
+        return result.size() > MAX_MATCHES ? null : result;
+    }
+
+    /**
+     * Recarrega todo o índice a partir do banco. As buscas continuam usando o índice anterior até a troca.
+     */
+    public void rebuild() {
+        writeLock.lock();
+        try {
+            versions.reset();
+            Map<Long, Set<String>> byExercise = new HashMap<>();
+            for (Exercise exercise : exerciseRepository.findAll()) {
+                if (!versions.put(exercise.getId(), exercise.getVersion())) continue;
+                byExercise.put(exercise.getId(), terms(exercise.getName(), exercise.getDescription()));
+            }
+            Postings rebuilt = Postings.of(byExercise);
+            postings = rebuilt;
+            log.info("Índice de busca montado com {} exercícios e {} termos.", rebuilt.byExercise().size(), rebuilt.byTerm().size());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void put(ExerciseDTO exercise) {
+        if (exercise.getId() == null) return;
+        writeLock.lock();
+        try {
+            Postings current = postings;
+            if (current == null || !versions.put(exercise.getId(), exercise.getVersion())) return;
+            postings = current.replace(exercise.getId(), terms(exercise.getName(), exercise.getDescription()));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        writeLock.lock();
+        try {
+            versions.remove(id);
+            Postings current = postings;
+            if (current == null) return;
+            postings = current.replace(id, null);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static Set<String> terms(String name, String description) {
+        Set<String> terms = new HashSet<>(SearchTerms.tokenize(name));
+        terms.addAll(SearchTerms.tokenize(description));
+        return terms;
+    }
+
+    // Imutável depois de publicado: as escritas montam um novo, compartilhando os conjuntos que não mudaram
+    private record Postings(NavigableMap<String, Set<Long>> byTerm, Map<Long, Set<String>> byExercise) {
+
+        static Postings of(Map<Long, Set<String>> byExercise) {
+            TreeMap<String, Set<Long>> byTerm = new TreeMap<>();
+            byExercise.forEach((id, terms) -> {
+                for (String term : terms) {
+                    byTerm.computeIfAbsent(term, t -> new HashSet<>()).add(id);
+                }
+            });
+            byTerm.replaceAll((term, ids) -> Set.copyOf(ids));
+            Map<Long, Set<String>> exercises = new HashMap<>();
+            byExercise.forEach((id, terms) -> exercises.put(id, Set.copyOf(terms)));
+            return new Postings(byTerm, exercises);
+        }
+
+        /**
+         * Cópia com os termos do exercício trocados; terms nulo remove o exercício.
+         */
+        Postings replace(Long id, Set<String> terms) {
+            TreeMap<String, Set<Long>> updatedTerms = new TreeMap<>(byTerm);
+            Map<Long, Set<String>> updatedExercises = new HashMap<>(byExercise);
+            Set<String> previous = updatedExercises.remove(id);
+            if (previous != null) {
+                for (String term : previous) {
+                    updatedTerms.computeIfPresent(term, (t, ids) -> {
+                        Set<Long> remaining = new HashSet<>(ids);
+                        remaining.remove(id);
+                        return remaining.isEmpty() ? null : Set.copyOf(remaining);
+                    });
+                }
+            }
+            if (terms != null) {
+                updatedExercises.put(id, Set.copyOf(terms));
+                for (String term : terms) {
+                    updatedTerms.merge(term, Set.of(id), (ids, added) -> {
+                        Set<Long> merged = new HashSet<>(ids);
+                        merged.addAll(added);
+                        return Set.copyOf(merged);
+                    });
+                }
+            }
+            return new Postings(updatedTerms, updatedExercises);
+        }
+    }
+}
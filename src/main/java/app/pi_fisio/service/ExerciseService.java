@@ -3,7 +3,9 @@ package app.pi_fisio.service;
 import app.pi_fisio.dto.ExerciseDTO;
 import app.pi_fisio.dto.ExerciseFilterDTO;
 import app.pi_fisio.dto.ExercisePageDTO;
+import app.pi_fisio.dto.JointIntensityDTO;
 import app.pi_fisio.entity.*;
+import app.pi_fisio.helper.KeysetCursor;
 import app.pi_fisio.infra.exception.ExerciseNotFoundException;
 import app.pi_fisio.infra.exception.NoJointIntensitiesException;
 import app.pi_fisio.infra.exception.UserNotFoundException;
@@ -11,72 +13,202 @@ import app.pi_fisio.queryfilters.ExerciseQueryFilter;
 import app.pi_fisio.repository.ExerciseRepository;
 import app.pi_fisio.repository.UserRepository;
 import app.pi_fisio.specifications.ExerciseSpec;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.util.ObjectUtils;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import static app.pi_fisio.infra.logging.LogMarkers.SAMPLED;
+
 @Log4j2
 @Service
 public class ExerciseService {
 
+    private static final Set<String> KEYSET_SORT_KEYS = Set.of("id", "name");
+
     @Autowired
     ExerciseRepository exerciseRepository;
     @Autowired
     UserRepository userRepository;
+    @Autowired
+    ExerciseRecommendationIndex recommendationIndex;
+    @Autowired
+    ExerciseCountCache countCache;
+    @Autowired
+    ExerciseSearchIndex searchIndex;
+    @Autowired
+    ExerciseCatalogVersion catalogVersion;
+    @Autowired
+    Validator validator;
 
     public ExerciseDTO create(ExerciseDTO exerciseDTO) throws Exception {
         Exercise exercise = new Exercise(exerciseDTO);
+        // Sempre um exercício novo, mesmo que o corpo traga id/versão
+        exercise.setId(null);
+        exercise.setVersion(null);
         ExerciseDTO savedExercise = new ExerciseDTO(exerciseRepository.save(exercise));
+        recommendationIndex.put(savedExercise);
+        searchIndex.put(savedExercise);
+        catalogVersion.put(savedExercise);
+        countCache.invalidateAll();
         log.info("Novo exercício criado com ID: {}", savedExercise.getId());
         return savedExercise;
     }
 
-    public ExerciseDTO update(Long id, ExerciseDTO exerciseDTO) throws Exception{
-        exerciseRepository.findById(id)
-                .orElseThrow(() -> {
-                    log.warn("Tentativa de atualizar exercício inexistente: ID {}", id);
-                    return new ExerciseNotFoundException();
-                });
+    /**
+     * Cria vários exercícios numa única transação: com ids em bloco (IdGenerators) os INSERTs vão em lote.
+     */
+    public List<ExerciseDTO> createAll(List<ExerciseDTO> exerciseDTOs) {
+        List<Exercise> exercises = exerciseDTOs.stream().map(Exercise::new).toList();
+        exercises.forEach(exercise -> {
+            exercise.setId(null);
+            exercise.setVersion(null);
+        });
+        List<ExerciseDTO> savedExercises = exerciseRepository.saveAll(exercises).stream().map(ExerciseDTO::new).toList();
+        savedExercises.forEach(exercise -> {
+            recommendationIndex.put(exercise);
+            searchIndex.put(exercise);
+            catalogVersion.put(exercise);
+        });
+        countCache.invalidateAll();
+        log.info("{} exercícios criados em lote.", savedExercises.size());
+        return savedExercises;
+    }
 
+    /**
+     * Um único UPDATE condicional, sem SELECT antes. Se o cliente enviar a versão lida e outro admin já tiver
+     * alterado o exercício, responde 409; sem versão a última escrita vence (como antes).
+     */
+    public ExerciseDTO update(Long id, ExerciseDTO exerciseDTO) throws Exception{
         Exercise exercise = new Exercise(exerciseDTO);
         exercise.setId(id);
-        ExerciseDTO updatedExercise = new ExerciseDTO(exerciseRepository.save(exercise));
+        // O UPDATE em JPQL não passa pela validação que o Hibernate fazia no save()
+        Set<ConstraintViolation<Exercise>> violations = validator.validate(exercise);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        Long version = exerciseDTO.getVersion();
+        if (exerciseRepository.update(id, version, exercise) == 0) {
+            // Só no caminho de erro: distingue exercício inexistente de versão desatualizada
+            if (version != null && exerciseRepository.existsById(id)) {
+                log.warn("Conflito de versão ao atualizar exercício ID {} (versão {})", id, version);
+                throw new ObjectOptimisticLockingFailureException(Exercise.class, id);
+            }
+            log.warn("Tentativa de atualizar exercício inexistente: ID {}", id);
+            throw new ExerciseNotFoundException();
+        }
+        if (version != null) {
+            exercise.setVersion(version + 1);
+        } else {
+            // Sem versão, relê a linha inteira: outro UPDATE pode ter chegado depois deste, e conteúdo e versão
+            // precisam vir do mesmo estado para os índices (que descartam versões mais antigas)
+            exercise = exerciseRepository.findById(id).orElseThrow(() -> {
+                log.warn("Exercício removido logo após a atualização: ID {}", id);
+                return new ExerciseNotFoundException();
+            });
+        }
+
+        ExerciseDTO updatedExercise = new ExerciseDTO(exercise);
+        recommendationIndex.put(updatedExercise);
+        searchIndex.put(updatedExercise);
+        catalogVersion.put(updatedExercise);
+        countCache.invalidateAll();
         log.info("Exercício atualizado com sucesso: ID {}", id);
         return updatedExercise;
     }
 
     public void delete(Long id)  {
-        if (!exerciseRepository.existsById(id)) {
+        if (exerciseRepository.removeById(id) == 0) {
             log.warn("Tentativa de deletar exercício inexistente: ID {}", id);
             throw new ExerciseNotFoundException();
         }
-        exerciseRepository.deleteById(id);
+        recommendationIndex.remove(id);
+        searchIndex.remove(id);
+        catalogVersion.remove(id);
+        countCache.invalidateAll();
         log.info("Exercício deletado com sucesso: ID {}", id);
     }
 
-    public ExercisePageDTO findAll(int page, int size, ExerciseQueryFilter filter ) {
+    /**
+     * Com withCount=false busca size+1 linhas só para saber se há próxima página, sem COUNT.
+     * Com withCount=true o total vem do cache por filtro quando disponível, e só é recalculado quando expira.
+     */
+    public ExercisePageDTO findAll(int page, int size, ExerciseQueryFilter filter, boolean withCount) {
+        Long cachedTotal = withCount ? countCache.get(filter) : null;
+        if (!withCount || cachedTotal != null) {
+            Window<Exercise> window = exerciseRepository.findBy(toSpecification(filter),
+                    query -> query.limit(size).scroll(offsetOf(page, size)));
+
+            List<ExerciseDTO> exercises = window.stream().map(ExerciseDTO::new).toList();
+            if (cachedTotal == null) {
+                log.info(SAMPLED, "Busca paginada de exercícios sem COUNT: Página {}, Tamanho {}", page, size);
+                return new ExercisePageDTO(exercises, null, null, null, window.hasNext());
+            }
+            log.info(SAMPLED, "Busca paginada de exercícios com total do cache ({}): Página {}, Tamanho {}", cachedTotal, page, size);
+            int totalPages = (int) Math.ceil((double) cachedTotal / size);
+            return new ExercisePageDTO(exercises, cachedTotal, totalPages, null, window.hasNext());
+        }
+
+        // Lida antes do COUNT: se uma escrita invalidar o cache no meio, este total não é guardado
+        long countedAt = countCache.epoch();
         Pageable pageable = PageRequest.of(page, size);
-        Page<Exercise> exercisePage = exerciseRepository.findAll(filter.toSpecification(), pageable);
+        Page<Exercise> exercisePage = exerciseRepository.findAll(toSpecification(filter), pageable);
+        countCache.put(filter, exercisePage.getTotalElements(), countedAt);
 
-        log.info("Busca paginada de exercícios: Página {}, Tamanho {}", page, size);
+        log.info(SAMPLED, "Busca paginada de exercícios: Página {}, Tamanho {}", page, size);
 
         List<ExerciseDTO> exercises = exercisePage.get().map(ExerciseDTO::new).toList();
-        return new ExercisePageDTO(exercises, exercisePage.getTotalElements(), exercisePage.getTotalPages());
+        return new ExercisePageDTO(exercises, exercisePage.getTotalElements(), exercisePage.getTotalPages(), null, exercisePage.hasNext());
+    }
+
+    // Com o índice de busca pronto, o nome vira um conjunto de ids; senão a mesma busca é feita no banco
+    private Specification<Exercise> toSpecification(ExerciseQueryFilter filter) {
+        Set<Long> nameMatchIds = searchIndex.search(filter.getName());
+        return nameMatchIds == null ? filter.toSpecification() : filter.toSpecification(nameMatchIds);
+    }
+
+    // ScrollPosition.offset(n) continua depois do elemento n, então a página p começa em offset(p * size - 1)
+    private static ScrollPosition offsetOf(int page, int size) {
+        long first = (long) page * size;
+        return first == 0 ? ScrollPosition.offset() : ScrollPosition.offset(first - 1);
+    }
+
+    // Paginação por keyset: sem OFFSET e sem COUNT, a próxima página começa depois do cursor
+    public ExercisePageDTO findAllKeyset(String after, String sort, int size, ExerciseQueryFilter filter) {
+        Sort order = KeysetCursor.sort(sort, KEYSET_SORT_KEYS);
+        ScrollPosition position = KeysetCursor.decode(after, sort, KEYSET_SORT_KEYS);
+        Window<Exercise> window = exerciseRepository.findBy(toSpecification(filter),
+                query -> query.sortBy(order).limit(size).scroll(position));
+
+        log.info(SAMPLED, "Busca de exercícios por cursor: Ordenação {}, Tamanho {}", order, size);
+
+        List<ExerciseDTO> exercises = window.stream().map(ExerciseDTO::new).toList();
+        String nextCursor = KeysetCursor.next(window, sort, KEYSET_SORT_KEYS);
+        return new ExercisePageDTO(exercises, null, null, nextCursor, nextCursor != null);
     }
 
     public ExerciseDTO findById(Long id) throws ExerciseNotFoundException {
         return exerciseRepository.findById(id)
                 .map(exercise -> {
-                    log.info("Exercício encontrado: ID {}", id);
+                    log.info(SAMPLED, "Exercício encontrado: ID {}", id);
                     return new ExerciseDTO(exercise);
                 })
                 .orElseThrow(() -> {
@@ -85,9 +217,14 @@ public class ExerciseService {
                 });
     }
     public List<ExerciseDTO> findByJointAndIntensity(Joint joint, Intensity intensity) throws Exception {
+        List<ExerciseDTO> indexed = recommendationIndex.get(joint, intensity);
+        if (indexed != null) {
+            log.info(SAMPLED, "Busca por exercícios no índice - Articulação: {}, Intensidade: {}", joint, intensity);
+            return indexed;
+        }
         return exerciseRepository.findByJointAndIntensity(joint, intensity)
                 .map(exercises -> {
-                    log.info("Busca por exercícios - Articulação: {}, Intensidade: {}", joint, intensity);
+                    log.info(SAMPLED, "Busca por exercícios - Articulação: {}, Intensidade: {}", joint, intensity);
                     return exercises.stream().map(ExerciseDTO::new).toList();
                 })
                 .orElseThrow(() -> {
@@ -97,7 +234,7 @@ public class ExerciseService {
     }
 
     public List<ExerciseDTO> findByUser(Long userId) throws Exception {
-        User user = userRepository.findById(userId)
+        User user = userRepository.findWithJointIntensitiesById(userId)
                 .orElseThrow(() -> {
                     log.warn("Usuário não encontrado: ID {}", userId);
                     return new UserNotFoundException("id", userId.toString());
@@ -110,13 +247,30 @@ public class ExerciseService {
             throw new NoJointIntensitiesException("User has no joint intensities.");
         }
 
-        log.info("Buscando exercícios recomendados para o usuário ID {}", userId);
+        log.info(SAMPLED, "Buscando exercícios recomendados para o usuário ID {}", userId);
 
+        Set<JointIntensityDTO> pairs = jointIntensities.stream()
+                .map(jointIntensity -> new JointIntensityDTO(jointIntensity.getJoint(), jointIntensity.getIntensity()))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        if (!recommendationIndex.isReady()) {
+            return findByJointIntensities(pairs);
+        }
         List<ExerciseDTO> list = new ArrayList<>();
-        for (JointIntensity jointIntensity : jointIntensities) {
-            list.addAll(findByJointAndIntensity(jointIntensity.getJoint(), jointIntensity.getIntensity()));
+        for (JointIntensityDTO pair : pairs) {
+            list.addAll(recommendationIndex.get(pair.joint(), pair.intensity()));
         }
         return list;
     }
 
+    // Todos os pares (articulação, intensidade) em uma única consulta, sem exercícios repetidos
+    public List<ExerciseDTO> findByJointIntensities(Collection<JointIntensityDTO> pairs) {
+        if (pairs.isEmpty()) return List.of();
+        log.info(SAMPLED, "Buscando exercícios no banco para {} pares de articulação/intensidade", pairs.size());
+        return exerciseRepository.findAll(ExerciseSpec.matchesAnyJointIntensity(pairs), Sort.by("id"))
+                .stream()
+                .map(ExerciseDTO::new)
+                .toList();
+    }
+
 }
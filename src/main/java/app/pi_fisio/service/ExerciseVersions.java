@@ -0,0 +1,55 @@
+package app.pi_fisio.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Última versão (@Version) de cada exercício aplicada a um índice em memória.
+ * Os índices são atualizados depois da escrita no banco e sem ordem entre requisições: um put atrasado
+ * (versão menor) ou que chega depois do delete é recusado. Os ids removidos ficam marcados como removidos,
+ * já que os ids não são reaproveitados. Versão nula conta como 0.
+ */
+final class ExerciseVersions {
+
+    private static final long REMOVED = Long.MAX_VALUE;
+
+    private final ConcurrentHashMap<Long, Long> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Registra a versão e retorna se ela deve ser aplicada: false quando o índice já tem uma versão
+     * mais nova ou o exercício foi removido.
+     */
+    boolean put(Long id, Long version) {
+        long value = version == null ? 0L : version;
+        return versions.merge(id, value, Math::max) == value;
+    }
+
+    void remove(Long id) {
+        versions.put(id, REMOVED);
+    }
+
+    /**
+     * Versão aplicada, ou null se o exercício não é conhecido ou foi removido.
+     */
+    Long get(Long id) {
+        Long version = versions.get(id);
+        return version == null || version == REMOVED ? null : version;
+    }
+
+    /**
+     * Cópia das versões dos exercícios conhecidos, sem os removidos.
+     */
+    Map<Long, Long> snapshot() {
+        Map<Long, Long> snapshot = new HashMap<>(versions);
+        snapshot.values().removeIf(version -> version == REMOVED);
+        return snapshot;
+    }
+
+    /**
+     * Esquece as versões antes de um rebuild, mantendo as remoções.
+     */
+    void reset() {
+        versions.values().removeIf(version -> version != REMOVED);
+    }
+}
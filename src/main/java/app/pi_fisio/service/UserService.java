@@ -1,11 +1,15 @@
 package app.pi_fisio.service;
 
-import app.pi_fisio.auth.JwtService;
+import app.pi_fisio.auth.AuthenticatedUser;
+import app.pi_fisio.auth.JwtTokenCache;
 import app.pi_fisio.dto.UserDTO;
 import app.pi_fisio.dto.UserPageDTO;
+import app.pi_fisio.entity.Intensity;
+import app.pi_fisio.entity.Joint;
 import app.pi_fisio.entity.JointIntensity;
 import app.pi_fisio.entity.User;
-import app.pi_fisio.helper.CopyPropertiesUtil;
+import app.pi_fisio.helper.KeysetCursor;
+import app.pi_fisio.helper.UserMapper;
 import app.pi_fisio.infra.exception.UserNotFoundException;
 import app.pi_fisio.repository.UserRepository;
 import lombok.extern.log4j.Log4j2;
@@ -13,23 +17,40 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.ObjectUtils;
 
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static app.pi_fisio.infra.logging.LogMarkers.SAMPLED;
+
 @Log4j2
 @Service
 
 public class UserService {
 
+    private static final Set<String> KEYSET_SORT_KEYS = Set.of("id", "name", "email");
+
     @Autowired
     UserRepository userRepository;
 
     @Autowired
-    JwtService jwtService;
+    JwtTokenCache jwtTokenCache;
 
     public UserDTO create(UserDTO userDTO) {
         User user = new User(userDTO);
+        user.setVersion(null);
         for (JointIntensity jointIntensity : user.getJointIntensities()) {
             jointIntensity.setUser(user);
         }
@@ -37,45 +58,69 @@ public class UserService {
         return new UserDTO(userRepository.save(user));
     }
 
+    /**
+     * Aplica o DTO sobre o usuário já carregado: o Hibernate só grava os campos que mudaram
+     * e as intensidades são combinadas por articulação (ver mergeJointIntensities).
+     * Se o cliente enviar a versão lida e o usuário já tiver sido alterado, responde 409; sem versão a última
+     * escrita vence (como antes).
+     */
+    @Transactional
     public UserDTO update(Long id, UserDTO userDTO) {
-        if (!userRepository.existsById(id)) {
-            throw new UserNotFoundException("id", id.toString());
-        }
-        User user = new User(userDTO);
-        user.setId(id);
-        user.setUserId(
-                userRepository.findById(id).get().getUserId()
-        );
-
-        // Vincula user a cada JointIntensity
-        for (JointIntensity ji : user.getJointIntensities()) {
-            ji.setUser(user);
-        }
-
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new UserNotFoundException("id", id.toString()));
+        checkVersion(user, userDTO.getVersion());
+
+        UserMapper.copyDetails(userDTO, user);
+        mergeClasses(user, userDTO.getClasses() == null ? List.of() : userDTO.getClasses());
+        mergeJointIntensities(user, userDTO.getJointIntensities() == null ? List.of() : userDTO.getJointIntensities());
+
+        // O flush incrementa a versão: a resposta já traz a que o cliente deve enviar na próxima edição
+        userRepository.flush();
+        UserDTO updatedUser = new UserDTO(user);
+        // Email e role fazem parte das claims do token
+        jwtTokenCache.revokeUser(id);
         log.info("Usuário atualizado com sucesso (ID: {})", id);
-        return new UserDTO(userRepository.save(user));
+        return updatedUser;
     }
 
+    @Transactional
     public void delete(Long id) {
-        if (!userRepository.existsById(id)) {
-            log.warn("Tentativa de exclusão falhou - Usuário não encontrado (ID: {})", id);
-            throw new UserNotFoundException("id", id.toString());
-        }
+        // Uma leitura: o usuário carregado é removido com as intensidades e turmas em cascata
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> {
+                    log.warn("Tentativa de exclusão falhou - Usuário não encontrado (ID: {})", id);
+                    return new UserNotFoundException("id", id.toString());
+                });
+        userRepository.delete(user);
+        jwtTokenCache.revokeUser(id);
         log.info("Usuário deletado com sucesso (ID: {})", id);
-        userRepository.deleteById(id);
     }
 
+    @Transactional(readOnly = true)
     public UserPageDTO findAll(int page,int size) {
-        log.info("Buscando usuários - Página: {}, Tamanho: {}", page, size);
+        log.info(SAMPLED, "Buscando usuários - Página: {}, Tamanho: {}", page, size);
         Pageable pageable = PageRequest.of(page, size);
         Page<User> userPage = userRepository.findAll(pageable);
         List<UserDTO> users = userPage.get().map(UserDTO::new).toList();
-        log.info("Lista de usuários retornada com {} registros.", userPage.getTotalElements());
+        log.info(SAMPLED, "Lista de usuários retornada com {} registros.", userPage.getTotalElements());
         return new UserPageDTO(users, userPage.getTotalElements(), userPage.getTotalPages());
     }
 
+    // Paginação por keyset: sem OFFSET e sem COUNT, a próxima página começa depois do cursor
+    @Transactional(readOnly = true)
+    public UserPageDTO findAllKeyset(String after, String sort, int size) {
+        log.info(SAMPLED, "Buscando usuários por cursor - Ordenação: {}, Tamanho: {}", sort, size);
+        Sort order = KeysetCursor.sort(sort, KEYSET_SORT_KEYS);
+        ScrollPosition position = KeysetCursor.decode(after, sort, KEYSET_SORT_KEYS);
+        Window<User> window = userRepository.findBy(Specification.where(null),
+                query -> query.sortBy(order).limit(size).scroll(position));
+        List<UserDTO> users = window.stream().map(UserDTO::new).toList();
+        return new UserPageDTO(users, null, null, KeysetCursor.next(window, sort, KEYSET_SORT_KEYS));
+    }
+
+    @Transactional(readOnly = true)
     public UserDTO findById(Long id) {
-        log.info("Buscando usuário por ID: {}", id);
+        log.info(SAMPLED, "Buscando usuário por ID: {}", id);
         return userRepository.findById(id)
                 .map(UserDTO::new)
                 .orElseThrow(() -> {
@@ -83,58 +128,101 @@ public class UserService {
                     return new UserNotFoundException("id", id.toString());
                 });
     }
-    public UserDTO findUserByJwt(String jwt) {
-        String email = jwtService.validateToken(jwt);
-        log.info("Buscando usuário por JWT - Email: {}", email);
+    @Transactional(readOnly = true)
+    public UserDTO findAuthenticatedUser(AuthenticatedUser principal) {
+        String email = principal.email();
+        log.info(SAMPLED, "Buscando usuário autenticado - Email: {}", email);
         return userRepository.findByEmail(email)
                 .map(UserDTO::new)
                 .orElseThrow(() -> {
-                    log.warn("Usuário não encontrado pelo JWT (Email: {})", email);
+                    log.warn("Usuário autenticado não encontrado (Email: {})", email);
                     return new UserNotFoundException("email", email);
-                });    }
+                });
+    }
 
+    @Transactional(readOnly = true)
     public UserDTO findByEmail(String email) {
         return userRepository.findByEmail(email)
                 .map(UserDTO::new)
                 .orElseThrow(() -> new UserNotFoundException("email", email));
     }
 
-    public UserDTO patchUpdate(UserDTO userDTO,String jwt) throws Exception{
-        String email = jwtService.validateToken(jwt);
+    /**
+     * Um PATCH que não muda nada não gera nenhuma escrita: campos iguais não sujam a entidade
+     * e as coleções só são tocadas quando diferem.
+     */
+    @Transactional
+    public UserDTO patchUpdate(UserDTO userDTO, AuthenticatedUser principal) throws Exception{
+        String email = principal.email();
         log.info("Patch update do usuário autenticado - Email: {}", email);
         User currentUser = userRepository.findByEmail (email)
                 .orElseThrow(() -> {
                     log.warn("Usuário não encontrado para patch update (Email: {})", email);
                     return new UserNotFoundException("email", email);
                 });
+        checkVersion(currentUser, userDTO.getVersion());
         User patchUser = new User(userDTO);
         patchUser.setRole(null);
         patchUser.setId(null);
         patchUser.setEmail(null);
 
         if(!ObjectUtils.isEmpty(patchUser.getJointIntensities())){
-            List<JointIntensity> currentUserJointIntensities = replaceJointIntensities(currentUser, patchUser);
-            currentUser.setJointIntensities(currentUserJointIntensities);
-            patchUser.setJointIntensities(null);
+            mergeJointIntensities(currentUser, patchUser.getJointIntensities());
+        }
+        if (patchUser.getClasses() != null) {
+            mergeClasses(currentUser, patchUser.getClasses());
         }
+        patchUser.setJointIntensities(null);
+        patchUser.setClasses(null);
 
-        CopyPropertiesUtil.copyNonNullProperties(patchUser, currentUser);
+        UserMapper.copyNonNull(patchUser, currentUser);
+        userRepository.flush();
         log.info("Patch update realizado com sucesso para o usuário: {}", email);
-        return new UserDTO(userRepository.save(currentUser));
+        return new UserDTO(currentUser);
+    }
+
+    // Entre requisições a versão vem do cliente; dentro da transação o @Version confere no UPDATE
+    private static void checkVersion(User user, Long version) {
+        if (version != null && !version.equals(user.getVersion())) {
+            log.warn("Conflito de versão ao atualizar usuário ID {} (versão {}, atual {})", user.getId(), version, user.getVersion());
+            throw new ObjectOptimisticLockingFailureException(User.class, user.getId());
+        }
+    }
+
+    /**
+     * Combina as intensidades pela articulação (única por usuário): as que mudaram são atualizadas,
+     * as novas inseridas e as ausentes removidas. Antes a lista era apagada e reinserida a cada PATCH.
+     */
+    private static void mergeJointIntensities(User user, List<JointIntensity> jointIntensities) {
+        // Articulação repetida no corpo: vale a última
+        Map<Joint, Intensity> wanted = new LinkedHashMap<>();
+        for (JointIntensity jointIntensity : jointIntensities) {
+            wanted.put(jointIntensity.getJoint(), jointIntensity.getIntensity());
+        }
+        if (user.getJointIntensities() == null) {
+            user.setJointIntensities(new ArrayList<>());
+        }
+
+        List<JointIntensity> current = user.getJointIntensities();
+        // Bancos anteriores à constraint única podem ter a mesma articulação repetida: fica só a primeira linha
+        Set<Joint> matched = EnumSet.noneOf(Joint.class);
+        current.removeIf(jointIntensity -> !wanted.containsKey(jointIntensity.getJoint()) || !matched.add(jointIntensity.getJoint()));
+        for (JointIntensity jointIntensity : current) {
+            Intensity intensity = wanted.remove(jointIntensity.getJoint());
+            if (jointIntensity.getIntensity() != intensity) {
+                jointIntensity.setIntensity(intensity);
+            }
+        }
+        wanted.forEach((joint, intensity) -> current.add(new JointIntensity(null, joint, intensity, user)));
     }
 
-    private  List<JointIntensity> replaceJointIntensities(User currentUser, User patchUser) {
-        List<JointIntensity> currentUserJointIntensities = currentUser.getJointIntensities();
-        currentUserJointIntensities.clear();
-
-        for (JointIntensity jointIntensities : patchUser.getJointIntensities() ) {
-            JointIntensity jointIntensity = new JointIntensity(
-                    null,
-                    jointIntensities.getJoint(),
-                    jointIntensities.getIntensity(),
-                    currentUser);
-            currentUserJointIntensities.add(jointIntensity);
+    // A coleção só é regravada quando o conteúdo muda (trocar a instância regrava tudo)
+    private static void mergeClasses(User user, List<String> classes) {
+        if (user.getClasses() == null) {
+            user.setClasses(new ArrayList<>(classes));
+        } else if (!new ArrayList<>(user.getClasses()).equals(classes)) {
+            user.getClasses().clear();
+            user.getClasses().addAll(classes);
         }
-        return currentUserJointIntensities;
     }
 }
@@ -1,20 +1,60 @@
 package app.pi_fisio.specifications;
 
+import app.pi_fisio.dto.JointIntensityDTO;
 import app.pi_fisio.entity.Exercise;
 import app.pi_fisio.entity.Intensity;
 import app.pi_fisio.entity.Joint;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.util.ObjectUtils;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
 public class ExerciseSpec {
 
-    public static Specification<Exercise> nameContains(String name) {
+    // Separadores de palavra reconhecidos no banco
+    static final String WORD_SEPARATORS = " \n-/(.,:;";
+
+    /**
+     * Mesma busca do ExerciseSearchIndex feita no banco: cada termo (SearchTerms.tokenize) precisa ser o começo
+     * de uma palavra do nome ou da descrição. Uma palavra começa no início do texto ou depois de um dos
+     * WORD_SEPARATORS; o índice aceita qualquer caractere que não seja letra ou número. Acentos e caixa são
+     * ignorados pela collation do MySQL (*_ai_ci), como no índice. Varre a tabela: só é usada sem o índice.
+     */
+    public static Specification<Exercise> matchesTerms(List<String> terms) {
+        return (root, query, criteriaBuilder) -> {
+            if (ObjectUtils.isEmpty(terms)) return null;
+
+            List<Expression<String>> columns = List.of(
+                    criteriaBuilder.lower(root.get("name")), criteriaBuilder.lower(root.get("description")));
+            Predicate[] allTerms = terms.stream()
+                    .map(term -> {
+                        // Os termos só têm letras e números, então não há curinga do LIKE para escapar
+                        List<Predicate> wordStarts = new ArrayList<>();
+                        for (Expression<String> column : columns) {
+                            wordStarts.add(criteriaBuilder.like(column, term + "%"));
+                            for (char separator : WORD_SEPARATORS.toCharArray()) {
+                                wordStarts.add(criteriaBuilder.like(column, "%" + separator + term + "%"));
+                            }
+                        }
+                        return criteriaBuilder.or(wordStarts.toArray(Predicate[]::new));
+                    })
+                    .toArray(Predicate[]::new);
+            return criteriaBuilder.and(allTerms);
+        };
+    }
+
+    // Ids já resolvidos pelo índice de busca; um conjunto vazio não casa com nenhum exercício
+    public static Specification<Exercise> idIn(Set<Long> ids) {
         return (root, query, criteriaBuilder) -> {
-            if (ObjectUtils.isEmpty(name)) return null;
+            if (ids == null) return null;
+            if (ids.isEmpty()) return criteriaBuilder.disjunction();
 
-            return criteriaBuilder.like(root.get("name"), "%" + name + "%");
+            return root.get("id").in(ids);
         };
     }
 
@@ -33,4 +73,19 @@ public class ExerciseSpec {
             return root.get("intensity").in(intensities);
         };
     }
+
+    // (joint = ? AND intensity = ?) OR (joint = ? AND intensity = ?) ... em uma única consulta
+    public static Specification<Exercise> matchesAnyJointIntensity(Collection<JointIntensityDTO> jointIntensities) {
+        return (root, query, criteriaBuilder) -> {
+            if (ObjectUtils.isEmpty(jointIntensities)) return null;
+
+            query.distinct(true);
+            Predicate[] pairs = jointIntensities.stream()
+                    .map(pair -> criteriaBuilder.and(
+                            criteriaBuilder.equal(root.get("joint"), pair.joint()),
+                            criteriaBuilder.equal(root.get("intensity"), pair.intensity())))
+                    .toArray(Predicate[]::new);
+            return criteriaBuilder.or(pairs);
+        };
+    }
 }
@@ -0,0 +1,103 @@
+package app.pi_fisio.auth;
+
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.json.webtoken.JsonWebSignature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GoogleTokenVerifierTest {
+
+    static final String CLIENT_ID = "client-id.apps.googleusercontent.com";
+
+    @TempDir
+    Path dir;
+
+    Path jwks;
+    KeyPair googleKey;
+    GoogleTokenVerifier verifier;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        googleKey = newKeyPair();
+        jwks = dir.resolve("jwks.json");
+        writeJwks(googleKey, Instant.now());
+        verifier = new GoogleTokenVerifier(CLIENT_ID, jwks.toString(), 60);
+    }
+
+    @Test
+    @DisplayName("A token signed by a key in the JWKS file is accepted")
+    void validToken() throws Exception {
+        GoogleIdToken.Payload payload = verifier.verify(sign(googleKey, CLIENT_ID, "pedro@email.com"));
+
+        assertNotNull(payload);
+        assertEquals("pedro@email.com", payload.getEmail());
+    }
+
+    @Test
+    @DisplayName("Wrong audience or unknown signing key is rejected")
+    void invalidToken() throws Exception {
+        assertNull(verifier.verify(sign(googleKey, "other-client", "pedro@email.com")));
+        assertNull(verifier.verify(sign(newKeyPair(), CLIENT_ID, "pedro@email.com")));
+    }
+
+    @Test
+    @DisplayName("Retries of an already verified token are served from the cache")
+    void cachedToken() throws Exception {
+        String token = sign(googleKey, CLIENT_ID, "pedro@email.com");
+        GoogleIdToken.Payload first = verifier.verify(token);
+
+        // Troca a chave do arquivo: um token novo não valida mais, mas o já verificado continua no cache
+        writeJwks(newKeyPair(), Instant.now().plusSeconds(5));
+        verifier.refreshKeys();
+
+        assertSame(first, verifier.verify(token));
+        assertNull(verifier.verify(sign(googleKey, CLIENT_ID, "maria@email.com")));
+    }
+
+    private KeyPair newKeyPair() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        return generator.generateKeyPair();
+    }
+
+    private void writeJwks(KeyPair keyPair, Instant modified) throws Exception {
+        RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        Files.writeString(jwks, "{\"keys\":[{\"kty\":\"RSA\",\"alg\":\"RS256\",\"kid\":\"test\",\"n\":\""
+                + encoder.encodeToString(unsigned(publicKey.getModulus().toByteArray())) + "\",\"e\":\""
+                + encoder.encodeToString(unsigned(publicKey.getPublicExponent().toByteArray())) + "\"}]}");
+        Files.setLastModifiedTime(jwks, FileTime.from(modified));
+    }
+
+    private static byte[] unsigned(byte[] bytes) {
+        return bytes[0] == 0 ? Arrays.copyOfRange(bytes, 1, bytes.length) : bytes;
+    }
+
+    private String sign(KeyPair keyPair, String audience, String email) throws Exception {
+        JsonWebSignature.Header header = new JsonWebSignature.Header().setAlgorithm("RS256").setKeyId("test");
+        long now = Instant.now().getEpochSecond();
+        GoogleIdToken.Payload payload = new GoogleIdToken.Payload()
+                .setIssuer("https://accounts.google.com")
+                .setAudience(audience)
+                .setSubject("google-" + email)
+                .setEmail(email)
+                .setIssuedAtTimeSeconds(now)
+                .setExpirationTimeSeconds(now + 3600);
+        return JsonWebSignature.signUsingRsaSha256(keyPair.getPrivate(), GsonFactory.getDefaultInstance(), header, payload);
+    }
+}
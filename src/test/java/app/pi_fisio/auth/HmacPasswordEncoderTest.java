@@ -0,0 +1,46 @@
+package app.pi_fisio.auth;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HmacPasswordEncoderTest {
+
+    @Test
+    @DisplayName("HMAC values are deterministic, keyed by the server secret")
+    void hmac() {
+        HmacPasswordEncoder encoder = new HmacPasswordEncoder("secret");
+
+        String encoded = encoder.encode("google-sub");
+
+        assertEquals(encoded, encoder.encode("google-sub"));
+        assertTrue(encoder.matches("google-sub", encoded));
+        assertFalse(encoder.matches("other-sub", encoded));
+        assertFalse(new HmacPasswordEncoder("other-secret").matches("google-sub", encoded));
+        assertThrows(IllegalArgumentException.class, () -> new HmacPasswordEncoder(""));
+    }
+
+    @Test
+    @DisplayName("Legacy unprefixed BCrypt values still match and are flagged for upgrade")
+    void legacyBcrypt() {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder();
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("hmac", Map.<String, PasswordEncoder>of(
+                "hmac", new HmacPasswordEncoder("secret"), "bcrypt", bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        String legacy = bcrypt.encode("google-sub");
+        String current = encoder.encode("google-sub");
+
+        assertTrue(current.startsWith("{hmac}"));
+        assertTrue(encoder.matches("google-sub", legacy));
+        assertTrue(encoder.matches("google-sub", current));
+        assertTrue(encoder.upgradeEncoding(legacy));
+        assertFalse(encoder.upgradeEncoding(current));
+    }
+}
@@ -0,0 +1,104 @@
+package app.pi_fisio.auth;
+
+import app.pi_fisio.entity.User;
+import app.pi_fisio.entity.UserRole;
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+    JwtKeyRing keyRing;
+    JwtService jwtService;
+    User user;
+
+    @BeforeEach
+    void setUp() {
+        keyRing = new JwtKeyRing("default-secret", null);
+        jwtService = new JwtService();
+        jwtService.keyRing = keyRing;
+        user = User.builder().id(1L).email("pedro@email.com").name("pedro").role(UserRole.USER).build();
+    }
+
+    @Test
+    @DisplayName("Tokens carry the kid of the key that signed them")
+    void signsWithKid() {
+        String token = jwtService.generateToken(user, 60);
+
+        assertEquals(JwtKeyRing.DEFAULT_KID, JWT.decode(token).getKeyId());
+        assertEquals("pedro@email.com", jwtService.validateToken(token));
+    }
+
+    @Test
+    @DisplayName("Tokens issued without kid are validated with the default key")
+    void tokenWithoutKid() {
+        String legacy = JWT.create().withIssuer("PI-Fisio").withSubject("pedro@email.com")
+                .sign(Algorithm.HMAC256("default-secret"));
+
+        assertEquals("pedro@email.com", jwtService.validateToken(legacy));
+    }
+
+    @Test
+    @DisplayName("After a rotation old tokens stay valid until their key is retired")
+    void rotateAndRetire() {
+        String oldToken = jwtService.generateToken(user, 60);
+        keyRing.rotate("2026-10", "new-secret");
+        String newToken = jwtService.generateToken(user, 60);
+
+        assertEquals("2026-10", JWT.decode(newToken).getKeyId());
+        assertEquals("pedro@email.com", jwtService.validateToken(oldToken));
+        assertEquals("pedro@email.com", jwtService.validateToken(newToken));
+
+        keyRing.retire(JwtKeyRing.DEFAULT_KID);
+        assertThrows(JWTVerificationException.class, () -> jwtService.validateToken(oldToken));
+        assertEquals("pedro@email.com", jwtService.validateToken(newToken));
+        assertThrows(IllegalArgumentException.class, () -> keyRing.retire("2026-10"));
+    }
+
+    @Test
+    @DisplayName("Tokens with an unknown kid or a forged signature are rejected")
+    void unknownKid() {
+        String unknown = JWT.create().withKeyId("other").withIssuer("PI-Fisio").withSubject("pedro@email.com")
+                .sign(Algorithm.HMAC256("default-secret"));
+        String forged = JWT.create().withKeyId(JwtKeyRing.DEFAULT_KID).withIssuer("PI-Fisio").withSubject("pedro@email.com")
+                .sign(Algorithm.HMAC256("other-secret"));
+
+        assertThrows(JWTVerificationException.class, () -> jwtService.validateToken(unknown));
+        assertThrows(JWTVerificationException.class, () -> jwtService.validateToken(forged));
+    }
+
+    @Test
+    @DisplayName("Keys are reloaded from the key file when it changes")
+    void reloadKeyFile(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("jwt-keys.properties");
+        Files.writeString(file, "active=k1\nk1=secret-1\n");
+        keyRing = new JwtKeyRing("default-secret", file.toString());
+        jwtService.keyRing = keyRing;
+        String k1Token = jwtService.generateToken(user, 60);
+        assertEquals("k1", JWT.decode(k1Token).getKeyId());
+
+        Files.writeString(file, "active=k2\nk2=secret-2\n");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(5)));
+        keyRing.reload();
+
+        assertEquals("k2", JWT.decode(jwtService.generateToken(user, 60)).getKeyId());
+        assertThrows(JWTVerificationException.class, () -> jwtService.validateToken(k1Token));
+
+        Files.writeString(file, "active=missing\n");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(10)));
+        keyRing.reload();
+        assertEquals("k2", keyRing.signingKey().kid());
+    }
+}
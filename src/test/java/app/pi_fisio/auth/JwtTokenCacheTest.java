@@ -0,0 +1,99 @@
+package app.pi_fisio.auth;
+
+import app.pi_fisio.entity.UserRole;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtTokenCacheTest {
+
+    JwtTokenCache jwtTokenCache;
+    AuthenticatedUser pedro;
+    AuthenticatedUser maria;
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenCache = new JwtTokenCache(100, 60);
+        pedro = new AuthenticatedUser(1L, "pedro@email.com", UserRole.USER);
+        maria = new AuthenticatedUser(2L, "maria@email.com", UserRole.ADMIN);
+    }
+
+    @Test
+    @DisplayName("Cached token returns the principal and counts hits and misses")
+    void getAndStats() {
+        jwtTokenCache.put("token-pedro", pedro, Instant.now().plusSeconds(60));
+
+        assertSame(pedro, jwtTokenCache.get("token-pedro"));
+        assertNull(jwtTokenCache.get("token-desconhecido"));
+        assertEquals(1, jwtTokenCache.stats().hitCount());
+        assertEquals(1, jwtTokenCache.stats().missCount());
+    }
+
+    @Test
+    @DisplayName("Expired tokens are not cached")
+    void expiredToken() {
+        jwtTokenCache.put("token-expirado", pedro, Instant.now().minusSeconds(1));
+
+        assertNull(jwtTokenCache.get("token-expirado"));
+    }
+
+    @Test
+    @DisplayName("Revoking a user only removes that user's tokens")
+    void revokeUser() {
+        Instant issuedAt = Instant.now().minusSeconds(10);
+        jwtTokenCache.put("token-pedro-1", pedro, Instant.now().plusSeconds(60));
+        jwtTokenCache.put("token-pedro-2", pedro, Instant.now().plusSeconds(60));
+        jwtTokenCache.put("token-maria", maria, Instant.now().plusSeconds(60));
+
+        jwtTokenCache.revokeUser(1L);
+
+        assertNull(jwtTokenCache.get("token-pedro-1"));
+        assertNull(jwtTokenCache.get("token-pedro-2"));
+        assertSame(maria, jwtTokenCache.get("token-maria"));
+        assertTrue(jwtTokenCache.isRevoked(1L, issuedAt));
+        assertFalse(jwtTokenCache.isRevoked(1L, Instant.now().plusSeconds(1)));
+        assertFalse(jwtTokenCache.isRevoked(2L, issuedAt));
+    }
+
+    @Test
+    @DisplayName("A token issued in the same second as the revocation is rejected")
+    void revokeUserSameSecond() {
+        // "iat" truncado para segundos, como vem no JWT, emitido logo antes da revogação
+        Instant issuedAt = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+
+        jwtTokenCache.revokeUser(1L);
+
+        assertTrue(jwtTokenCache.isRevoked(1L, issuedAt));
+        assertFalse(jwtTokenCache.isRevoked(1L, issuedAt.plusSeconds(2)));
+    }
+
+    @Test
+    @DisplayName("A token issued before a revocation stays rejected after the revocation TTL has passed")
+    void revocationOutlivesTokens() {
+        AtomicLong nanos = new AtomicLong();
+        JwtTokenCache cache = new JwtTokenCache(100, 60, nanos::get);
+        Instant revokedAt = Instant.now();
+        Instant issuedAt = revokedAt.truncatedTo(ChronoUnit.SECONDS);
+        // Refresh token com a validade máxima (60 minutos), emitido logo antes da revogação
+        Instant expiresAt = new JwtService().generateExpirationDate(60);
+
+        cache.revokeUser(1L);
+
+        // Até o "exp" do token a revogação continua valendo
+        nanos.set(Duration.between(revokedAt, expiresAt).toNanos());
+        assertTrue(cache.isRevoked(1L, issuedAt));
+
+        // Passado o TTL a revogação é esquecida, mas o token já expirou
+        nanos.set(Duration.ofMinutes(60).plus(JwtTokenCache.REVOCATION_MARGIN).plusSeconds(1).toNanos());
+        Instant now = revokedAt.plusNanos(nanos.get());
+        assertFalse(cache.isRevoked(1L, issuedAt));
+        assertTrue(expiresAt.isBefore(now));
+    }
+}
@@ -0,0 +1,54 @@
+package app.pi_fisio.config;
+
+import app.pi_fisio.auth.GoogleTokenVerifier;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsStringIgnoringCase;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.options;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Mesma configuração do QueryBudgetEndpointsTest, para reaproveitar o contexto (frontend.url=http://localhost no perfil h2)
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class CorsConfigTest {
+
+    private static final String ORIGIN = "http://localhost";
+    // Outro host: com o mesmo host da origem a requisição não é cross-origin e o CorsFilter não age
+    private static final String EXERCISES = "http://api.pi-fisio.test/api/exercise";
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @MockBean
+    GoogleTokenVerifier googleTokenVerifier;
+
+    @Test
+    @DisplayName("The preflight of a conditional GET allows If-None-Match")
+    void preflightAllowsIfNoneMatch() throws Exception {
+        mockMvc.perform(options(EXERCISES)
+                        .header(HttpHeaders.ORIGIN, ORIGIN)
+                        .header(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "GET")
+                        .header(HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS, "authorization, if-none-match"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, ORIGIN))
+                .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS, containsStringIgnoringCase(HttpHeaders.IF_NONE_MATCH)));
+    }
+
+    @Test
+    @DisplayName("Cross-origin responses expose the ETag")
+    void exposesETag() throws Exception {
+        mockMvc.perform(get(EXERCISES).header(HttpHeaders.ORIGIN, ORIGIN))
+                .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS, containsStringIgnoringCase(HttpHeaders.ETAG)));
+    }
+}
@@ -0,0 +1,104 @@
+package app.pi_fisio.config;
+
+import app.pi_fisio.infra.exception.QueryBudgetExceededException;
+import app.pi_fisio.infra.metrics.QueryBudget;
+import app.pi_fisio.infra.metrics.QueryCounter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryBudgetInterceptorTest {
+
+    private final QueryCounter inspector = new QueryCounter();
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+    private QueryBudgetInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        interceptor = new QueryBudgetInterceptor();
+        interceptor.meterRegistry = new SimpleMeterRegistry();
+        QueryCounter.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        QueryCounter.stop();
+    }
+
+    @Test
+    void failModeThrowsOnTheFirstQueryOverBudget() throws Exception {
+        interceptor.fail = true;
+        interceptor.preHandle(request, response, handler("findOne"));
+
+        inspector.inspect("select e1_0.id from exercise e1_0 where e1_0.id=?");
+        inspector.inspect("insert into exercise (id, name) values (?, ?)");
+        QueryBudgetExceededException exceeded = assertThrows(QueryBudgetExceededException.class,
+                () -> inspector.inspect("select u1_0.id from users u1_0 where u1_0.id=?"));
+
+        assertTrue(exceeded.getMessage().contains("from users"));
+        assertEquals(3, QueryCounter.current());
+        assertEquals(2, QueryCounter.queries());
+        // Só a primeira consulta excedente falha, o tratamento do erro pode consultar o banco
+        assertDoesNotThrow(() -> inspector.inspect("select 1"));
+    }
+
+    @Test
+    void warnModeKeepsTheSampleAndCountsTheEndpoint() throws Exception {
+        interceptor.fail = false;
+        HandlerMethod handler = handler("findOne");
+        interceptor.preHandle(request, response, handler);
+
+        inspector.inspect("select 1");
+        inspector.inspect("select 2");
+        interceptor.afterCompletion(request, response, handler, null);
+
+        QueryBudgetExceededException exceeded = QueryCounter.exceeded();
+        assertNotNull(exceeded);
+        assertTrue(exceeded.getStackTrace().length > 0);
+        assertEquals(1, interceptor.meterRegistry.counter("app.query_budget.exceeded", "endpoint", "Budgeted.findOne").count());
+    }
+
+    @Test
+    void classBudgetAppliesToMethodsWithoutTheirOwn() throws Exception {
+        interceptor.fail = true;
+        interceptor.preHandle(request, response, handler("findMany"));
+
+        for (int i = 0; i < 3; i++) inspector.inspect("select " + i);
+        assertThrows(QueryBudgetExceededException.class, () -> inspector.inspect("select 3"));
+    }
+
+    @Test
+    void withoutBudgetNothingIsEnforced() throws Exception {
+        interceptor.fail = true;
+        interceptor.preHandle(request, response, new HandlerMethod(new Unbudgeted(), Unbudgeted.class.getMethod("findAll")));
+
+        for (int i = 0; i < 100; i++) inspector.inspect("select " + i);
+        assertNull(QueryCounter.exceeded());
+    }
+
+    private static HandlerMethod handler(String method) throws NoSuchMethodException {
+        return new HandlerMethod(new Budgeted(), Budgeted.class.getMethod(method));
+    }
+
+    @QueryBudget(3)
+    static class Budgeted {
+        @QueryBudget(1)
+        public void findOne() {
+        }
+
+        public void findMany() {
+        }
+    }
+
+    static class Unbudgeted {
+        public void findAll() {
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package app.pi_fisio.config;
+
+import app.pi_fisio.infra.metrics.ServerTiming;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServerTimingFilterTest {
+
+    private final ServerTimingFilter filter = new ServerTimingFilter();
+
+    @Test
+    void withoutHeaderTheResponseIsUntouched() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/exercise");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<Object> seen = new AtomicReference<>();
+
+        filter.doFilter(request, response, (req, res) -> {
+            seen.set(res);
+            assertNull(ServerTiming.current());
+        });
+
+        assertSame(response, seen.get());
+        assertNull(response.getHeader(ServerTiming.RESPONSE_HEADER));
+    }
+
+    @Test
+    void adminGetsThePhaseBreakdown() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/exercise/getByUser");
+        request.addHeader(ServerTiming.REQUEST_HEADER, "1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> {
+            ServerTiming timing = ServerTiming.current();
+            timing.add(ServerTiming.Phase.JWT, 300_000);
+            timing.allow();
+            timing.handlerStarted();
+            timing.add(ServerTiming.Phase.USER, 1_000_000);
+            timing.add(ServerTiming.Phase.DB, 2_000_000);
+            timing.bodyStarted(3);
+            res.getWriter().write("[]");
+        });
+
+        String header = response.getHeader(ServerTiming.RESPONSE_HEADER);
+        assertNotNull(header);
+        assertTrue(header.startsWith("jwt;dur=0.30, user;dur=1.00, db;dur=2.00, sql;desc=\"3 statements\", app;dur="), header);
+        assertTrue(header.contains(", json;dur=") && header.contains(", total;dur="), header);
+        assertEquals("[]", response.getContentAsString());
+        assertNull(ServerTiming.current());
+    }
+
+    @Test
+    void otherUsersDoNotGetTheHeader() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/exercise");
+        request.addHeader(ServerTiming.REQUEST_HEADER, "1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> res.getWriter().write("[]"));
+
+        assertNull(response.getHeader(ServerTiming.RESPONSE_HEADER));
+        assertEquals("[]", response.getContentAsString());
+    }
+
+    @Test
+    void otherUsersResponsesAreNotBuffered() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/exercise");
+        request.addHeader(ServerTiming.REQUEST_HEADER, "1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> {
+            ServerTiming.current().handlerStarted();
+            res.getWriter().write("[]");
+            // Sem a liberação de ADMIN o corpo chega à resposta na hora, sem ficar em memória
+            assertEquals("[]", response.getContentAsString());
+        });
+
+        assertNull(response.getHeader(ServerTiming.RESPONSE_HEADER));
+        assertEquals("[]", response.getContentAsString());
+    }
+}
@@ -15,9 +15,14 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.util.concurrent.CompletableFuture;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -31,8 +36,8 @@ public class AuthControllerTest {
 
     @BeforeEach
     void init() throws Exception {
-        Mockito.when(authService.authWithGoogle("invalid-id-token")).thenThrow(new InvalidGoogleTokenException("Invalid Google ID Token"));
-        Mockito.when(authService.authWithGoogle("id-token")).thenReturn(new TokenResponseDTO("access-token","refresh-token"));
+        Mockito.when(authService.authWithGoogleAsync("invalid-id-token")).thenThrow(new InvalidGoogleTokenException("Invalid Google ID Token"));
+        Mockito.when(authService.authWithGoogleAsync("id-token")).thenReturn(CompletableFuture.completedFuture(new TokenResponseDTO("access-token","refresh-token")));
         Mockito.when(authService.getRefreshToken("refresh-token")).thenReturn(new TokenResponseDTO("access-token","refresh-token"));
         Mockito.when(authService.getRefreshToken("invalid-refresh-token")).thenThrow(new JWTDecodeException("Invalid token."));
     }
@@ -50,9 +55,12 @@ public class AuthControllerTest {
     @Test
     @DisplayName("When the Google ID Token is valid.")
     void authWithGoogle02() throws Exception {
-        mockMvc.perform(post("/auth/login")
+        MvcResult result = mockMvc.perform(post("/auth/login")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("{\"idToken\":\"id-token\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.accessToken").isNotEmpty())
                 .andExpect(jsonPath("$.refreshToken").isNotEmpty());
@@ -0,0 +1,78 @@
+package app.pi_fisio.controller;
+
+import app.pi_fisio.auth.GoogleTokenVerifier;
+import app.pi_fisio.auth.JwtService;
+import app.pi_fisio.entity.User;
+import app.pi_fisio.entity.UserRole;
+import app.pi_fisio.repository.UserRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Mesma configuração do QueryBudgetEndpointsTest, para reaproveitar o contexto
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ExerciseBatchEndpointTest {
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    JwtService jwtService;
+
+    @MockBean
+    GoogleTokenVerifier googleTokenVerifier;
+
+    String adminToken;
+
+    @BeforeAll
+    void seed() {
+        User admin = userRepository.save(new User(null, "Batch Admin", LocalDate.of(2000, 1, 1), "batch-admin@gmail.com", null,
+                "https://picture.com", UserRole.ADMIN, "Math", new ArrayList<>(List.of("3A")), new ArrayList<>()));
+        adminToken = jwtService.generateToken(admin, 60);
+    }
+
+    @Test
+    @DisplayName("A batch up to the limit is created")
+    void createBatch() throws Exception {
+        createAll(2).andExpect(status().isCreated())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    @DisplayName("A batch above the limit is rejected with 400")
+    void batchTooLarge() throws Exception {
+        createAll(ExerciseController.MAX_BATCH_SIZE + 1).andExpect(status().isBadRequest());
+    }
+
+    private ResultActions createAll(int size) throws Exception {
+        StringJoiner body = new StringJoiner(",", "[", "]");
+        for (int i = 0; i < size; i++) {
+            body.add("{\"name\":\"Batch " + i + "\",\"description\":\"Batch description\",\"reps\":\"3x\","
+                    + "\"videoUrl\":\"https://videoUrl.com\",\"joint\":\"HIP\",\"intensity\":\"LOW\"}");
+        }
+        return mockMvc.perform(post("/api/exercise/batch").header("Authorization", "Bearer " + adminToken)
+                .contentType(MediaType.APPLICATION_JSON).content(body.toString()));
+    }
+}
@@ -0,0 +1,193 @@
+package app.pi_fisio.controller;
+
+import app.pi_fisio.auth.GoogleTokenVerifier;
+import app.pi_fisio.auth.JwtService;
+import app.pi_fisio.entity.*;
+import app.pi_fisio.repository.ExerciseRepository;
+import app.pi_fisio.repository.UserRepository;
+import app.pi_fisio.service.ExerciseCatalogVersion;
+import app.pi_fisio.service.ExerciseRecommendationIndex;
+import app.pi_fisio.service.ExerciseSearchIndex;
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Passa por cada endpoint com @QueryBudget no H2, com query.budget.fail=true (config/application.properties):
+ * um endpoint que passe a fazer mais consultas que o orçamento responde 500 e o teste falha.
+ * A carga tem várias linhas por coleção para que um N+1 apareça na contagem.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryBudgetEndpointsTest {
+
+    private static final Joint[] JOINTS = Joint.values();
+    private static final Intensity[] INTENSITIES = Intensity.values();
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    ExerciseRepository exerciseRepository;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    ExerciseRecommendationIndex recommendationIndex;
+    @Autowired
+    ExerciseSearchIndex searchIndex;
+    @Autowired
+    ExerciseCatalogVersion catalogVersion;
+    @Autowired
+    JwtService jwtService;
+
+    @MockBean
+    GoogleTokenVerifier googleTokenVerifier;
+
+    @Value("${query.budget.fail}")
+    boolean budgetEnforced;
+
+    User admin;
+    User student;
+    String adminToken;
+    String studentToken;
+    Long exerciseId;
+
+    @BeforeAll
+    void seed() throws Exception {
+        List<Exercise> exercises = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            exercises.add(new Exercise(null, "Exercise " + i, "Exercise " + i + " description", "3x", "https://videoUrl.com",
+                    JOINTS[i % JOINTS.length], INTENSITIES[i % INTENSITIES.length]));
+        }
+        exerciseId = exerciseRepository.saveAll(exercises).get(0).getId();
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            users.add(user("User " + i, "user" + i + "@gmail.com", UserRole.USER));
+        }
+        userRepository.saveAll(users);
+        student = users.get(0);
+        admin = userRepository.save(user("Admin", "admin@gmail.com", UserRole.ADMIN));
+        adminToken = jwtService.generateToken(admin, 60);
+        studentToken = jwtService.generateToken(student, 60);
+
+        // Os índices são montados no ApplicationReadyEvent, antes da carga
+        recommendationIndex.rebuild();
+        searchIndex.rebuild();
+        catalogVersion.load();
+    }
+
+    @Test
+    @DisplayName("The budgets are enforced in the test run")
+    void budgetEnforced() {
+        assertTrue(budgetEnforced);
+    }
+
+    @Test
+    @DisplayName("Exercise reads stay within their budgets")
+    void exerciseReads() throws Exception {
+        perform(get("/api/exercise/" + exerciseId), adminToken).andExpect(status().isOk());
+        perform(get("/api/exercise?page=1&size=5"), adminToken).andExpect(status().isOk());
+        perform(get("/api/exercise?page=0&size=5&withCount=false&name=exercise"), adminToken).andExpect(status().isOk());
+        perform(get("/api/exercise?after=&size=5&sort=name"), adminToken).andExpect(status().isOk());
+        perform(get("/api/exercise/findByJointAndIntensity?joint=KNEE&intensity=LOW"), adminToken).andExpect(status().isOk());
+        perform(get("/api/exercise/getByUser?userId=" + student.getId()), adminToken).andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Exercise writes stay within their budgets")
+    void exerciseWrites() throws Exception {
+        String body = "{\"name\":\"Budget\",\"description\":\"Budget description\",\"reps\":\"3x\","
+                + "\"videoUrl\":\"https://videoUrl.com\",\"joint\":\"HIP\",\"intensity\":\"LOW\"}";
+        String location = perform(post("/api/exercise").contentType(MediaType.APPLICATION_JSON).content(body), adminToken)
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getHeader("Location");
+        String path = location.substring(location.indexOf("/api/exercise/"));
+
+        perform(put(path).contentType(MediaType.APPLICATION_JSON).content(body), adminToken).andExpect(status().isOk());
+        perform(delete(path), adminToken).andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("User reads stay within their budgets")
+    void userReads() throws Exception {
+        perform(get("/api/user/" + student.getId()), adminToken).andExpect(status().isOk());
+        perform(get("/api/user?page=0&size=20"), adminToken).andExpect(status().isOk());
+        perform(get("/api/user?after=&size=5&sort=email"), adminToken).andExpect(status().isOk());
+        perform(get("/api/user/info"), studentToken).andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("User writes stay within their budgets")
+    void userWrites() throws Exception {
+        String body = "{\"name\":\"Budget\",\"email\":\"budget@gmail.com\",\"role\":\"USER\",\"subject\":\"Math\",\"classes\":[\"1A\",\"2A\"],\"jointIntensities\":[]}";
+        String location = perform(post("/api/user").contentType(MediaType.APPLICATION_JSON).content(body), adminToken)
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getHeader("Location");
+        String path = location.substring(location.indexOf("/api/user/"));
+
+        perform(put(path).contentType(MediaType.APPLICATION_JSON).content(body.replace("Math", "Physics")), adminToken)
+                .andExpect(status().isOk());
+        perform(delete(path), adminToken).andExpect(status().isOk());
+
+        User patched = userRepository.save(user("Patched", "patched@gmail.com", UserRole.USER));
+        perform(patch("/api/user").contentType(MediaType.APPLICATION_JSON).content("{\"subject\":\"History\",\"classes\":[\"3B\"]}"),
+                jwtService.generateToken(patched, 60))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Login and refresh stay within their budgets")
+    void auth() throws Exception {
+        // O @MockBean é resetado depois de cada teste, então o stub fica aqui e não no @BeforeAll
+        when(googleTokenVerifier.verify("google-token")).thenReturn(new GoogleIdToken.Payload()
+                .setEmail(student.getEmail()).setSubject("google-user0"));
+        MvcResult login = mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"idToken\":\"google-token\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(login)).andExpect(status().isOk());
+
+        String refreshToken = jwtService.generateToken(student, 1440);
+        mockMvc.perform(post("/api/auth/refreshToken").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"" + refreshToken + "\"}"))
+                .andExpect(status().isOk());
+    }
+
+    private ResultActions perform(MockHttpServletRequestBuilder request, String token) throws Exception {
+        return mockMvc.perform(request.header("Authorization", "Bearer " + token));
+    }
+
+    private static User user(String name, String email, UserRole role) {
+        User user = new User(null, name, LocalDate.of(2000, 1, 1), email, null, "https://picture.com", role, "Math",
+                new ArrayList<>(List.of("3A", "3B")), new ArrayList<>());
+        for (int j = 0; j < 3; j++) {
+            user.getJointIntensities().add(new JointIntensity(null, JOINTS[j], INTENSITIES[j], user));
+        }
+        return user;
+    }
+}
@@ -0,0 +1,67 @@
+package app.pi_fisio.helper;
+
+import app.pi_fisio.dto.ExerciseDTO;
+import app.pi_fisio.dto.UserDTO;
+import app.pi_fisio.entity.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.BeanUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MapperTest {
+
+    @Test
+    @DisplayName("Exercise mapping copies the same fields as BeanUtils")
+    void exerciseMatchesBeanUtils() {
+        Exercise exercise = new Exercise(1L, "Exercise 01", "Exercise 01 description", "3x", "https://videoUrl.com", Joint.SHOULDER, Intensity.HIGH);
+
+        ExerciseDTO expected = new ExerciseDTO();
+        BeanUtils.copyProperties(exercise, expected);
+
+        assertEquals(expected.toString(), new ExerciseDTO(exercise).toString());
+        assertEquals(exercise.toString(), new Exercise(expected).toString());
+    }
+
+    @Test
+    @DisplayName("User mapping copies the same fields as BeanUtils")
+    void userMatchesBeanUtils() {
+        User user = fullUser();
+
+        UserDTO expected = new UserDTO();
+        BeanUtils.copyProperties(user, expected);
+        assertEquals(expected.toString(), new UserDTO(user).toString());
+
+        User expectedUser = new User();
+        BeanUtils.copyProperties(expected, expectedUser);
+        assertEquals(expectedUser.toString(), new User(expected).toString());
+    }
+
+    @Test
+    @DisplayName("Patch copies only the non-null fields, like CopyPropertiesUtil")
+    @SuppressWarnings("deprecation")
+    void copyNonNullMatchesCopyPropertiesUtil() throws IllegalAccessException {
+        User patch = new User();
+        patch.setName("New name");
+        patch.setClasses(List.of("3B"));
+
+        User expected = fullUser();
+        CopyPropertiesUtil.copyNonNullProperties(patch, expected);
+        User actual = fullUser();
+        UserMapper.copyNonNull(patch, actual);
+
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals("New name", actual.getName());
+        assertEquals("user@gmail.com", actual.getEmail());
+        assertEquals("google-id", actual.getUserId());
+    }
+
+    private User fullUser() {
+        JointIntensity jointIntensity = new JointIntensity(1L, Joint.KNEE, Intensity.LOW, null);
+        return new User(1L, "User", LocalDate.of(2000, 1, 1), "user@gmail.com", "google-id", "https://picture.com",
+                UserRole.USER, "Math", List.of("3A"), List.of(jointIntensity));
+    }
+}
@@ -0,0 +1,56 @@
+package app.pi_fisio.infra.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SamplingTurboFilterTest {
+
+    static final Marker SAMPLED = MarkerFactory.getMarker(LogMarkers.SAMPLED_NAME);
+
+    SamplingTurboFilter filter;
+    Logger logger;
+
+    @BeforeEach
+    void setUp() {
+        LoggerContext context = new LoggerContext();
+        logger = context.getLogger("app.pi_fisio.service.UserService");
+        logger.setLevel(Level.INFO);
+        filter = new SamplingTurboFilter();
+        filter.setContext(context);
+        filter.setRate(10);
+        filter.start();
+    }
+
+    @Test
+    @DisplayName("Marked lines pass once every rate events")
+    void samplesMarkedLines() {
+        assertEquals(3, passed(SAMPLED, Level.INFO, 30));
+    }
+
+    @Test
+    @DisplayName("Unmarked lines and warnings are never sampled")
+    void keepsUnmarkedLines() {
+        assertEquals(30, passed(null, Level.INFO, 30));
+        assertEquals(30, passed(MarkerFactory.getMarker("OTHER"), Level.INFO, 30));
+        assertEquals(30, passed(SAMPLED, Level.WARN, 30));
+    }
+
+    private int passed(Marker marker, Level level, int events) {
+        int passed = 0;
+        for (int i = 0; i < events; i++) {
+            if (filter.decide(marker, logger, level, "Buscando usuário por ID: " + i, null, null) == FilterReply.NEUTRAL) {
+                passed++;
+            }
+        }
+        return passed;
+    }
+}
@@ -0,0 +1,312 @@
+package app.pi_fisio.loadtest;
+
+import app.pi_fisio.auth.JwtService;
+import app.pi_fisio.entity.*;
+import app.pi_fisio.repository.ExerciseRepository;
+import app.pi_fisio.repository.UserRepository;
+import app.pi_fisio.service.ExerciseCatalogVersion;
+import app.pi_fisio.service.ExerciseRecommendationIndex;
+import app.pi_fisio.service.ExerciseSearchIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ActiveProfilesResolver;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Teste de carga ponta a ponta: sobe a aplicação com H2 (modo MySQL), popula exercícios e usuários,
+ * gera JWTs pelo JwtService e dispara requisições concorrentes contra os endpoints principais.
+ * Reporta p50/p95/p99 e requisições por segundo por endpoint, no log e em target/loadtest-result.json.
+ * Fica fora do build normal (tag "loadtest"); rode com: mvn -Ploadtest test
+ * <p>
+ * Para comparar platform e virtual threads (Java 21), rode duas vezes, com e sem -Dloadtest.virtual=true:
+ * mvn -Pjava21,loadtest test -Dloadtest.virtual=true -Dloadtest.db_latency_ms=5 -Dloadtest.concurrency=256
+ * O H2 em memória responde em microssegundos; loadtest.db_latency_ms simula a latência de rede de um banco real,
+ * que é onde threads bloqueadas fazem diferença.
+ */
+@Log4j2
+@Tag("loadtest")
+@ActiveProfiles(resolver = LoadTest.Profiles.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class LoadTest {
+
+    private static final Joint[] JOINTS = Joint.values();
+    private static final Intensity[] INTENSITIES = Intensity.values();
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    ExerciseRepository exerciseRepository;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    ExerciseRecommendationIndex recommendationIndex;
+    @Autowired
+    ExerciseSearchIndex searchIndex;
+    @Autowired
+    ExerciseCatalogVersion catalogVersion;
+    @Autowired
+    JwtService jwtService;
+    @Autowired
+    ObjectMapper objectMapper;
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${loadtest.exercises}")
+    int exercises;
+    @Value("${loadtest.users}")
+    int users;
+    @Value("${loadtest.concurrency}")
+    int concurrency;
+    @Value("${loadtest.requests}")
+    int requests;
+    @Value("${loadtest.warmup}")
+    int warmup;
+    @Value("${loadtest.db_latency_ms}")
+    long dbLatencyMs;
+    @Value("${spring.threads.virtual.enabled:false}")
+    boolean virtualThreads;
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    @Test
+    void endpoints() throws Exception {
+        List<User> seededUsers = seed();
+        List<String> tokens = seededUsers.stream().map(user -> jwtService.generateToken(user, 60)).toList();
+
+        Map<String, IntFunction<HttpRequest>> scenarios = new LinkedHashMap<>();
+        scenarios.put("GET /api/exercise", i -> get("/api/exercise?page=" + (i % 50) + "&size=20", token(tokens, i)));
+        // Cliente que já tem a página e só revalida: 304 sem consultar o banco
+        String catalogETag = "\"" + catalogVersion.catalogETag() + "\"";
+        scenarios.put("GET /api/exercise (If-None-Match)", i -> request("/api/exercise?page=" + (i % 50) + "&size=20", token(tokens, i))
+                .header("If-None-Match", catalogETag).GET().build());
+        scenarios.put("GET /api/exercise/getByUser", i -> {
+            int u = i % seededUsers.size();
+            return get("/api/exercise/getByUser?userId=" + seededUsers.get(u).getId(), tokens.get(u));
+        });
+        scenarios.put("GET /api/user/info", i -> get("/api/user/info", token(tokens, i)));
+        // jointIntensities fica fora do corpo: o UserDTO não desserializa JointIntensity (@JsonBackReference sem par)
+        scenarios.put("PATCH /api/user", i -> patch("/api/user", token(tokens, i),
+                "{\"subject\":\"Subject " + (i % 100) + "\",\"classes\":[\"" + (i % 9 + 1) + "A\"]}"));
+
+        List<Result> results = new ArrayList<>();
+        for (Map.Entry<String, IntFunction<HttpRequest>> scenario : scenarios.entrySet()) {
+            if (warmup > 0) run(scenario.getValue(), warmup);
+            Result result = run(scenario.getValue(), requests).named(scenario.getKey());
+            log.info(result);
+            results.add(result);
+        }
+
+        String threads = virtualThreads ? "virtual" : "platform";
+        Path report = Path.of("target", "loadtest-result-" + threads + ".json");
+        Files.createDirectories(report.getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(report.toFile(), Map.of(
+                "threads", threads, "dbLatencyMs", dbLatencyMs,
+                "exercises", exercises, "users", users, "concurrency", concurrency, "requests", requests,
+                "results", results, "pool", poolMetrics(), "statements", statementMetrics()));
+        log.info("Resultado salvo em {}", report.toAbsolutePath());
+
+        for (Result result : results) {
+            assertEquals(0, result.errors(), result.endpoint() + " retornou erros");
+        }
+    }
+
+    private List<User> seed() {
+        List<Exercise> exerciseRows = new ArrayList<>(exercises);
+        for (int i = 0; i < exercises; i++) {
+            exerciseRows.add(new Exercise(null, "Exercise " + i, "Exercise " + i + " description", (i % 15 + 1) + "x",
+                    "https://videoUrl.com/" + i, JOINTS[i % JOINTS.length], INTENSITIES[(i / JOINTS.length) % INTENSITIES.length]));
+        }
+        exerciseRepository.saveAll(exerciseRows);
+
+        List<User> userRows = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            User user = new User(null, "User " + i, LocalDate.of(2000, 1, 1), "user" + i + "@gmail.com", "google-" + i,
+                    "https://picture.com/" + i, UserRole.USER, "Math", new ArrayList<>(List.of("3A")), new ArrayList<>());
+            for (int j = 0; j < 3; j++) {
+                user.getJointIntensities().add(new JointIntensity(null, JOINTS[(i + j) % JOINTS.length], INTENSITIES[(i + j) % INTENSITIES.length], user));
+            }
+            userRows.add(user);
+        }
+        List<User> saved = userRepository.saveAll(userRows);
+
+        // Os índices são montados no ApplicationReadyEvent, antes da carga dos dados
+        recommendationIndex.rebuild();
+        searchIndex.rebuild();
+        catalogVersion.load();
+        log.info("Carga inicial: {} exercícios e {} usuários.", exercises, users);
+        return saved;
+    }
+
+    private Result run(IntFunction<HttpRequest> scenario, int total) throws InterruptedException {
+        long[] latencies = new long[total];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        long start = System.nanoTime();
+        for (int t = 0; t < concurrency; t++) {
+            executor.execute(() -> {
+                for (int i = next.getAndIncrement(); i < total; i = next.getAndIncrement()) {
+                    HttpRequest request = scenario.apply(i);
+                    long begin = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() >= 400) errors.incrementAndGet();
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    latencies[i] = System.nanoTime() - begin;
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        return new Result(null, total, errors.get(),
+                percentile(latencies, 50), percentile(latencies, 95), percentile(latencies, 99),
+                total / (elapsed / 1e9));
+    }
+
+    // Métricas do HikariCP durante todo o teste: base para dimensionar spring.datasource.hikari.maximum-pool-size
+    private Map<String, Object> poolMetrics() {
+        Map<String, Object> pool = new LinkedHashMap<>();
+        Optional.ofNullable(meterRegistry.find("hikaricp.connections.max").gauge())
+                .ifPresent(gauge -> pool.put("maxConnections", (int) gauge.value()));
+        Timer acquire = meterRegistry.find("hikaricp.connections.acquire").timer();
+        if (acquire != null) {
+            pool.put("acquires", acquire.count());
+            pool.put("acquireMeanMs", acquire.mean(TimeUnit.MILLISECONDS));
+            pool.put("acquireMaxMs", acquire.max(TimeUnit.MILLISECONDS));
+        }
+        Optional.ofNullable(meterRegistry.find("hikaricp.connections.timeout").counter())
+                .ifPresent(counter -> pool.put("timeouts", (long) counter.count()));
+        log.info("Pool JDBC: {}", pool);
+        return pool;
+    }
+
+    // Média de statements SQL por requisição em cada rota (StatementMetricsFilter)
+    private Map<String, Object> statementMetrics() {
+        Map<String, Object> statements = new TreeMap<>();
+        meterRegistry.find("app.request.statements").summaries().forEach(summary -> statements.put(
+                summary.getId().getTag("method") + " " + summary.getId().getTag("uri"), summary.mean()));
+        log.info("Statements por requisição: {}", statements);
+        return statements;
+    }
+
+    private static double percentile(long[] sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    private static String token(List<String> tokens, int i) {
+        return tokens.get(i % tokens.size());
+    }
+
+    private HttpRequest get(String path, String token) {
+        return request(path, token).GET().build();
+    }
+
+    private HttpRequest patch(String path, String token, String body) {
+        return request(path, token)
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30));
+    }
+
+    /**
+     * Perfil "loadtest", mais o perfil "virtual" com -Dloadtest.virtual=true.
+     */
+    static class Profiles implements ActiveProfilesResolver {
+        @Override
+        public String[] resolve(Class<?> testClass) {
+            return Boolean.getBoolean("loadtest.virtual") ? new String[]{"loadtest", "virtual"} : new String[]{"loadtest"};
+        }
+    }
+
+    /**
+     * Atrasa cada statement preparado em loadtest.db_latency_ms, com a conexão ocupada, como a ida e volta a um banco remoto.
+     */
+    @TestConfiguration
+    static class DatabaseLatency {
+        @Bean
+        static BeanPostProcessor databaseLatencyPostProcessor(@Value("${loadtest.db_latency_ms}") long latencyMs) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (latencyMs <= 0 || !(bean instanceof DataSource dataSource)) return bean;
+                    return new DelegatingDataSource(dataSource) {
+                        @Override
+                        public Connection getConnection() throws java.sql.SQLException {
+                            return delayed(super.getConnection(), latencyMs);
+                        }
+                    };
+                }
+            };
+        }
+
+        private static Connection delayed(Connection connection, long latencyMs) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("prepareStatement")) Thread.sleep(latencyMs);
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+
+    // Latências em milissegundos
+    record Result(String endpoint, int requests, int errors, double p50, double p95, double p99, double requestsPerSecond) {
+
+        Result named(String endpoint) {
+            return new Result(endpoint, requests, errors, p50, p95, p99, requestsPerSecond);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-30s %6d req  %4d erros  p50 %7.2f ms  p95 %7.2f ms  p99 %7.2f ms  %8.1f req/s",
+                    endpoint, requests, errors, p50, p95, p99, requestsPerSecond);
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package app.pi_fisio.repository;
+
+import app.pi_fisio.config.IdGeneratorSeeder;
+import app.pi_fisio.dto.ExerciseDTO;
+import app.pi_fisio.dto.ExercisePageDTO;
+import app.pi_fisio.dto.JointIntensityDTO;
+import app.pi_fisio.entity.Exercise;
+import app.pi_fisio.entity.IdGenerators;
+import app.pi_fisio.entity.Intensity;
+import app.pi_fisio.entity.Joint;
+import app.pi_fisio.infra.exception.ExerciseNotFoundException;
+import app.pi_fisio.infra.exception.InvalidCursorException;
+import app.pi_fisio.queryfilters.ExerciseQueryFilter;
+import app.pi_fisio.service.ExerciseCatalogVersion;
+import app.pi_fisio.service.ExerciseCountCache;
+import app.pi_fisio.service.ExerciseRecommendationIndex;
+import app.pi_fisio.service.ExerciseSearchIndex;
+import app.pi_fisio.service.ExerciseService;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.ConstraintViolationException;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.datasource.username=sa",
+        "spring.datasource.password="
+})
+@Import({ExerciseService.class, ExerciseRecommendationIndex.class, ExerciseCountCache.class, ExerciseSearchIndex.class,
+        ExerciseCatalogVersion.class, IdGeneratorSeeder.class})
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+class ExerciseRepositoryTest {
+
+    @Autowired
+    ExerciseRepository exerciseRepository;
+
+    @Autowired
+    ExerciseService exerciseService;
+
+    @Autowired
+    ExerciseSearchIndex searchIndex;
+
+    @Autowired
+    ExerciseCatalogVersion catalogVersion;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    IdGeneratorSeeder idGeneratorSeeder;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        exerciseRepository.saveAll(List.of(
+                new Exercise(null, "Exercise 01", "Exercise 01 description", "3x", "https://videoUrl.com", Joint.SHOULDER, Intensity.HIGH),
+                new Exercise(null, "Exercise 02", "Exercise 02 description", "6x", "https://videoUrl.com", Joint.SHOULDER, Intensity.HIGH),
+                new Exercise(null, "Exercise 03", "Exercise 03 description", "12x", "https://videoUrl.com", Joint.KNEE, Intensity.MEDIUM),
+                new Exercise(null, "Exercise 04", "Exercise 04 description", "10x", "https://videoUrl.com", Joint.KNEE, Intensity.LOW),
+                new Exercise(null, "Exercise 05", "Exercise 05 description", "5x", "https://videoUrl.com", Joint.CERVICAL, Intensity.LOW)));
+        exerciseRepository.flush();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Bulk create takes ids from the pooled generator and sends the inserts as one batch")
+    void createAllBatchesInserts() {
+        List<ExerciseDTO> created = exerciseService.createAll(List.of(
+                new ExerciseDTO(null, "Exercise 06", "Exercise 06 description", "3x", "https://videoUrl.com", Joint.HIP, Intensity.LOW),
+                new ExerciseDTO(null, "Exercise 07", "Exercise 07 description", "3x", "https://videoUrl.com", Joint.HIP, Intensity.LOW),
+                new ExerciseDTO(null, "Exercise 08", "Exercise 08 description", "3x", "https://videoUrl.com", Joint.HIP, Intensity.LOW)));
+        exerciseRepository.flush();
+
+        List<Long> ids = created.stream().map(ExerciseDTO::getId).toList();
+        assertEquals(List.of(ids.get(0), ids.get(0) + 1, ids.get(0) + 2), ids);
+        // o bloco de ids já foi reservado no setUp: sem acesso à tabela do gerador, um único INSERT em lote
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(8, exerciseRepository.count());
+    }
+
+    @Test
+    @DisplayName("Update is a single conditional statement that bumps the version")
+    void updateWithVersion() throws Exception {
+        ExerciseDTO current = exerciseService.findById(firstId());
+        statistics.clear();
+
+        current.setName("Exercise 01 renamed");
+        ExerciseDTO updated = exerciseService.update(current.getId(), current);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(current.getVersion() + 1, updated.getVersion());
+        assertEquals("Exercise 01 renamed", exerciseService.findById(current.getId()).getName());
+    }
+
+    @Test
+    @DisplayName("A stale version is a conflict and an unknown id is not found")
+    void updateConflicts() throws Exception {
+        ExerciseDTO current = exerciseService.findById(firstId());
+        exerciseService.update(current.getId(), current);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> exerciseService.update(current.getId(), current));
+        assertThrows(ExerciseNotFoundException.class, () -> exerciseService.update(-1L, current));
+    }
+
+    @Test
+    @DisplayName("Without a version the update re-reads the row, and an invalid body is rejected before any statement")
+    void updateWithoutVersion() throws Exception {
+        ExerciseDTO current = exerciseService.findById(firstId());
+        current.setVersion(null);
+        current.setName("Exercise 01 renamed");
+        statistics.clear();
+
+        ExerciseDTO updated = exerciseService.update(current.getId(), current);
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(1L, updated.getVersion());
+        assertEquals("Exercise 01 renamed", updated.getName());
+
+        current.setName(null);
+        statistics.clear();
+        assertThrows(ConstraintViolationException.class, () -> exerciseService.update(current.getId(), current));
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Delete is a single statement and an unknown id is not found")
+    void deleteSingleStatement() {
+        Long id = firstId();
+        statistics.clear();
+
+        exerciseService.delete(id);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(4, exerciseRepository.count());
+        assertThrows(ExerciseNotFoundException.class, () -> exerciseService.delete(-1L));
+    }
+
+    @Test
+    @DisplayName("The id generator is moved past rows inserted outside of it")
+    void seedIdGenerator() {
+        jdbcTemplate.update("INSERT INTO exercise (id, name, description, joint, intensity) VALUES (10000, 'Legacy', 'Legacy', 'HIP', 'LOW')");
+
+        idGeneratorSeeder.seed();
+        idGeneratorSeeder.seed();
+
+        Long nextVal = jdbcTemplate.queryForObject("SELECT " + IdGenerators.VALUE_COLUMN + " FROM " + IdGenerators.TABLE
+                + " WHERE " + IdGenerators.NAME_COLUMN + " = ?", Long.class, IdGenerators.EXERCISE);
+        assertEquals(10001L, nextVal);
+    }
+
+    @Test
+    @DisplayName("All joint/intensity pairs are resolved with a single SQL statement")
+    void findByJointIntensitiesSingleQuery() {
+        List<ExerciseDTO> response = exerciseService.findByJointIntensities(List.of(
+                new JointIntensityDTO(Joint.SHOULDER, Intensity.HIGH),
+                new JointIntensityDTO(Joint.KNEE, Intensity.MEDIUM),
+                new JointIntensityDTO(Joint.CERVICAL, Intensity.LOW)));
+
+        assertEquals(4, response.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Repeated pairs do not return repeated exercises")
+    void findByJointIntensitiesDeduplicates() {
+        List<ExerciseDTO> response = exerciseService.findByJointIntensities(List.of(
+                new JointIntensityDTO(Joint.SHOULDER, Intensity.HIGH),
+                new JointIntensityDTO(Joint.SHOULDER, Intensity.HIGH)));
+
+        assertEquals(2, response.size());
+        assertEquals(2, response.stream().map(ExerciseDTO::getId).distinct().count());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Without count the page is fetched with a single statement")
+    void findAllWithoutCount() {
+        ExercisePageDTO first = exerciseService.findAll(0, 2, new ExerciseQueryFilter(), false);
+        ExercisePageDTO last = exerciseService.findAll(2, 2, new ExerciseQueryFilter(), false);
+
+        assertEquals(2, first.exercises().size());
+        assertTrue(first.hasNext());
+        assertNull(first.totalElements());
+        assertEquals(1, last.exercises().size());
+        assertFalse(last.hasNext());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("The total is counted once per filter and reused on the next pages")
+    void findAllCachedCount() {
+        ExerciseQueryFilter filter = new ExerciseQueryFilter();
+        filter.setIntensities(Set.of(Intensity.HIGH, Intensity.LOW));
+
+        ExercisePageDTO first = exerciseService.findAll(0, 2, filter, true);
+        long afterFirstPage = statistics.getPrepareStatementCount();
+        ExercisePageDTO second = exerciseService.findAll(1, 2, filter, true);
+
+        assertEquals(2, afterFirstPage);
+        assertEquals(afterFirstPage + 1, statistics.getPrepareStatementCount());
+        assertEquals(4L, first.totalElements());
+        assertEquals(4L, second.totalElements());
+        assertEquals(2, second.totalPages());
+        assertEquals(2, second.exercises().size());
+        assertFalse(second.hasNext());
+    }
+
+    @Test
+    @DisplayName("The name filter is resolved by the search index before the query")
+    void findAllByName() {
+        searchIndex.rebuild();
+        statistics.clear();
+        ExerciseQueryFilter filter = new ExerciseQueryFilter();
+        filter.setName("exercise 0");
+        filter.setIntensities(Set.of(Intensity.LOW));
+
+        ExercisePageDTO page = exerciseService.findAll(0, 10, filter, false);
+
+        assertEquals(List.of("Exercise 04", "Exercise 05"), page.exercises().stream().map(ExerciseDTO::getName).toList());
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        filter.setName("inexistente");
+        assertTrue(exerciseService.findAll(0, 10, filter, false).exercises().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Without the search index the database applies the same term-prefix search")
+    void findAllByNameFallback() {
+        exerciseRepository.saveAll(List.of(
+                new Exercise(null, "Alongamento (cervical)", "Ombro-punho lateral", "3x", "https://videoUrl.com", Joint.CERVICAL, Intensity.LOW),
+                new Exercise(null, "Rotacao/ombro", "Sentado, 10 repeticoes", "3x", "https://videoUrl.com", Joint.SHOULDER, Intensity.LOW)));
+        searchIndex.rebuild();
+
+        for (String name : List.of("exercise 0", "Éxercise 01", "desc", "xercise", "cerv", "punho", "ombro", "ombro lat", "repet", "inexistente")) {
+            ExerciseQueryFilter filter = new ExerciseQueryFilter();
+            filter.setName(name);
+            Set<Long> indexed = searchIndex.search(name);
+            Set<Long> fallback = new HashSet<>();
+            exerciseRepository.findAll(filter.toSpecification()).forEach(exercise -> fallback.add(exercise.getId()));
+            assertEquals(indexed, fallback, name);
+        }
+    }
+
+    @Test
+    @DisplayName("Keyset pagination walks every page with one statement per page and no count")
+    void findAllKeyset() {
+        List<String> names = new ArrayList<>();
+        String cursor = "";
+        int pages = 0;
+        do {
+            ExercisePageDTO page = exerciseService.findAllKeyset(cursor, "name", 2, new ExerciseQueryFilter());
+            assertNull(page.totalElements());
+            assertNull(page.totalPages());
+            page.exercises().forEach(exercise -> names.add(exercise.getName()));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(List.of("Exercise 01", "Exercise 02", "Exercise 03", "Exercise 04", "Exercise 05"), names);
+        assertEquals(3, pages);
+        assertEquals(pages, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Keyset pagination keeps the filters")
+    void findAllKeysetWithFilter() {
+        ExerciseQueryFilter filter = new ExerciseQueryFilter();
+        filter.setJoints(Set.of(Joint.KNEE));
+
+        ExercisePageDTO page = exerciseService.findAllKeyset("", null, 10, filter);
+
+        assertEquals(List.of("Exercise 03", "Exercise 04"), page.exercises().stream().map(ExerciseDTO::getName).toList());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    @DisplayName("A cursor from another sort key is rejected")
+    void findAllKeysetInvalidCursor() {
+        String cursor = exerciseService.findAllKeyset("", "id", 2, new ExerciseQueryFilter()).nextCursor();
+
+        assertThrows(InvalidCursorException.class,
+                () -> exerciseService.findAllKeyset(cursor, "name", 2, new ExerciseQueryFilter()));
+        assertThrows(InvalidCursorException.class,
+                () -> exerciseService.findAllKeyset("???", "id", 2, new ExerciseQueryFilter()));
+        assertThrows(InvalidCursorException.class,
+                () -> exerciseService.findAllKeyset("", "description", 2, new ExerciseQueryFilter()));
+    }
+
+    @Test
+    @DisplayName("Writes change the catalog ETag and the exercise ETag, which is read without a statement")
+    void catalogVersionFollowsWrites() throws Exception {
+        catalogVersion.load();
+        Long id = firstId();
+        statistics.clear();
+
+        String catalog = catalogVersion.catalogETag();
+        String exercise = catalogVersion.exerciseETag(id);
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(ExerciseCatalogVersion.etag(exerciseService.findById(id)), exercise);
+
+        exerciseService.update(id, exerciseService.findById(id));
+        assertNotEquals(catalog, catalogVersion.catalogETag());
+        assertNotEquals(exercise, catalogVersion.exerciseETag(id));
+        assertEquals(ExerciseCatalogVersion.etag(exerciseService.findById(id)), catalogVersion.exerciseETag(id));
+
+        // um put atrasado com a versão anterior não volta o ETag
+        String updated = catalogVersion.exerciseETag(id);
+        ExerciseDTO stale = exerciseService.findById(id);
+        stale.setVersion(stale.getVersion() - 1);
+        catalogVersion.put(stale);
+        assertEquals(updated, catalogVersion.exerciseETag(id));
+
+        // o reload só muda o catálogo quando o banco mudou (por exemplo, escrita de outra instância)
+        catalog = catalogVersion.catalogETag();
+        catalogVersion.load();
+        assertEquals(catalog, catalogVersion.catalogETag());
+        jdbcTemplate.update("UPDATE exercise SET version = version + 1 WHERE id = ?", id);
+        catalogVersion.load();
+        assertNotEquals(catalog, catalogVersion.catalogETag());
+        assertNotEquals(updated, catalogVersion.exerciseETag(id));
+
+        catalog = catalogVersion.catalogETag();
+        exerciseService.delete(id);
+        assertNotEquals(catalog, catalogVersion.catalogETag());
+        assertNull(catalogVersion.exerciseETag(id));
+    }
+
+    private Long firstId() {
+        return exerciseRepository.findAll().stream().map(Exercise::getId).min(Long::compare).orElseThrow();
+    }
+}
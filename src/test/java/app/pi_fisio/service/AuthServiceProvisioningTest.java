@@ -0,0 +1,119 @@
+package app.pi_fisio.service;
+
+import app.pi_fisio.auth.AuthService;
+import app.pi_fisio.auth.GoogleTokenVerifier;
+import app.pi_fisio.auth.JwtKeyRing;
+import app.pi_fisio.auth.JwtService;
+import app.pi_fisio.auth.TokenResponseDTO;
+import app.pi_fisio.entity.User;
+import app.pi_fisio.entity.UserRole;
+import app.pi_fisio.repository.UserRepository;
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AuthServiceProvisioningTest {
+
+    @Mock
+    GoogleTokenVerifier googleTokenVerifier;
+    @Mock
+    UserRepository userRepository;
+    @Mock
+    PasswordEncoder passwordEncoder;
+
+    @InjectMocks
+    AuthService authService;
+
+    ExecutorService executor;
+    CountDownLatch release;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "keyRing", new JwtKeyRing("test-secret", null));
+        ReflectionTestUtils.setField(authService, "jwtService", jwtService);
+
+        executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1));
+        ReflectionTestUtils.setField(authService, "loginExecutor", executor);
+
+        when(googleTokenVerifier.verify("token-google")).thenReturn(new GoogleIdToken.Payload()
+                .setEmail("novopedro@email.com").setSubject("pedro1000").set("name", "pedro henrique"));
+        when(userRepository.findByEmail("novopedro@email.com")).thenReturn(Optional.empty());
+        // Segura o cadastro até o teste liberar, simulando o custo do BCrypt
+        release = new CountDownLatch(1);
+        when(passwordEncoder.encode(any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return "encoded";
+        });
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            user.setId(1L);
+            return user;
+        });
+    }
+
+    @Test
+    @DisplayName("Concurrent first logins for the same email create the user once")
+    void concurrentFirstLogins() throws Exception {
+        CompletableFuture<TokenResponseDTO> first = authService.authWithGoogleAsync("token-google");
+        CompletableFuture<TokenResponseDTO> second = authService.authWithGoogleAsync("token-google");
+        assertFalse(first.isDone());
+
+        release.countDown();
+
+        assertNotNull(first.get(5, TimeUnit.SECONDS).accessToken());
+        assertNotNull(second.get(5, TimeUnit.SECONDS).accessToken());
+        verify(userRepository, times(1)).save(any(User.class));
+        verify(passwordEncoder, times(1)).encode(any());
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("A legacy BCrypt userId is rewritten on the next login")
+    void upgradesLegacyCredential() throws Exception {
+        release.countDown();
+        User legacy = User.builder().id(2L).email("pedro@email.com").role(UserRole.USER).userId("$2a$10$legacy").build();
+        when(googleTokenVerifier.verify("token-pedro"))
+                .thenReturn(new GoogleIdToken.Payload().setEmail("pedro@email.com").setSubject("pedro11023"));
+        when(userRepository.findByEmail("pedro@email.com")).thenReturn(Optional.of(legacy));
+        when(passwordEncoder.upgradeEncoding("$2a$10$legacy")).thenReturn(true);
+        when(passwordEncoder.matches("pedro11023", "$2a$10$legacy")).thenReturn(true);
+        when(passwordEncoder.encode("pedro11023")).thenReturn("{hmac}new");
+        when(userRepository.updateUserId(2L, "$2a$10$legacy", "{hmac}new")).thenReturn(1);
+
+        assertNotNull(authService.authWithGoogleAsync("token-pedro").get(5, TimeUnit.SECONDS).accessToken());
+
+        verify(userRepository, timeout(5000)).updateUserId(2L, "$2a$10$legacy", "{hmac}new");
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("A saturated login executor rejects new provisioning instead of queueing it")
+    void saturatedExecutor() throws Exception {
+        GoogleIdToken.Payload other = new GoogleIdToken.Payload().setEmail("other@email.com").setSubject("other");
+        GoogleIdToken.Payload third = new GoogleIdToken.Payload().setEmail("third@email.com").setSubject("third");
+        when(googleTokenVerifier.verify("token-other")).thenReturn(other);
+        when(googleTokenVerifier.verify("token-third")).thenReturn(third);
+
+        authService.authWithGoogleAsync("token-google");   // ocupa a única thread
+        authService.authWithGoogleAsync("token-other");    // ocupa a única vaga da fila
+
+        assertThrows(RejectedExecutionException.class, () -> authService.authWithGoogleAsync("token-third"));
+        release.countDown();
+        executor.shutdown();
+    }
+}
@@ -1,6 +1,8 @@
 package app.pi_fisio.service;
 
 import app.pi_fisio.auth.AuthService;
+import app.pi_fisio.auth.GoogleTokenVerifier;
+import app.pi_fisio.auth.JwtKeyRing;
 import app.pi_fisio.auth.JwtService;
 import app.pi_fisio.auth.TokenResponseDTO;
 import app.pi_fisio.entity.User;
@@ -9,21 +11,18 @@ import app.pi_fisio.infra.exception.InvalidGoogleTokenException;
 import app.pi_fisio.repository.UserRepository;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
-import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
-import com.google.api.client.json.webtoken.JsonWebSignature;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
-import org.mockito.MockedConstruction;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Optional;
 
-import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -39,8 +38,16 @@ public class AuthServiceTest {
     @MockBean
     JwtService jwtService;
 
+    @MockBean
+    GoogleTokenVerifier googleTokenVerifier;
+
+    @Autowired
+    JwtKeyRing keyRing;
+
     @BeforeEach
     void setup() throws Exception {
+        // os métodos reais chamados no mock precisam das chaves
+        ReflectionTestUtils.setField(jwtService, "keyRing", keyRing);
         User user = User.builder().email("pedro@email.com").name("pedro").userId("pedro11023").role(UserRole.USER).build();
         when(userRepository.findByEmail("pedro@email.com")).thenReturn(Optional.of(user));
         when(userRepository.findByEmail("novopedro@email.com")).thenReturn(Optional.empty());
@@ -48,72 +55,47 @@ public class AuthServiceTest {
         when(jwtService.generateExpirationDate(Mockito.any())).thenCallRealMethod();
         when(jwtService.validateToken("refresh-token")).thenReturn("pedro@email.com");
         when(jwtService.validateToken("invalid-refresh-token")).thenCallRealMethod();
+        when(jwtService.verifyToken("invalid-refresh-token")).thenCallRealMethod();
     }
 
-    private GoogleIdToken createMockGoogleIdToken(String email, String subject, String name) {
-        GoogleIdToken.Payload mockPayload = new GoogleIdToken.Payload()
+    private GoogleIdToken.Payload createMockGooglePayload(String email, String subject, String name) {
+        return new GoogleIdToken.Payload()
                 .setEmail(email)
                 .setSubject(subject)
                 .set("name", name);
-
-        return new GoogleIdToken(
-                new JsonWebSignature.Header(),
-                mockPayload,
-                new byte[1],
-                new byte[1]
-        );
     }
 
-    // Referencia do mock: https://stackoverflow.com/a/72595913
     @Test
     @DisplayName("Auth with valid Google token and in the DB.")
     void authWithGoogle01() throws Exception {
-        GoogleIdToken mockGoogleIdToken = createMockGoogleIdToken("pedro@email.com", "pedro11023", "pedro");
-
-        try (MockedConstruction<GoogleIdTokenVerifier> myobjectMockedConstruction =
-                     Mockito.mockConstruction(GoogleIdTokenVerifier.class,
-                             (mock, context) -> {
-                                 given(mock.verify("token-google")).willReturn(mockGoogleIdToken);
-                             })) {
+        when(googleTokenVerifier.verify("token-google"))
+                .thenReturn(createMockGooglePayload("pedro@email.com", "pedro11023", "pedro"));
 
-            TokenResponseDTO response = authService.authWithGoogle("token-google");
+        TokenResponseDTO response = authService.authWithGoogle("token-google");
 
-            Assertions.assertNotNull(response.accessToken(), response.refreshToken());
-            verify(userRepository).findByEmail("pedro@email.com");
-        }
+        Assertions.assertNotNull(response.accessToken(), response.refreshToken());
+        verify(userRepository).findByEmail("pedro@email.com");
     }
 
     @Test
     @DisplayName("Auth with valid Google token but not in the DB.")
     void authWithGoogle02() throws Exception {
-        GoogleIdToken mockGoogleIdToken = createMockGoogleIdToken("novopedro@email.com", "pedro1000", "pedro henrique");
-
-        try (MockedConstruction<GoogleIdTokenVerifier> myobjectMockedConstruction =
-                     Mockito.mockConstruction(GoogleIdTokenVerifier.class,
-                             (mock, context) -> {
-                                 given(mock.verify("token-google")).willReturn(mockGoogleIdToken);
-                             })) {
-
+        when(googleTokenVerifier.verify("token-google"))
+                .thenReturn(createMockGooglePayload("novopedro@email.com", "pedro1000", "pedro henrique"));
 
-            TokenResponseDTO response = authService.authWithGoogle("token-google");
+        TokenResponseDTO response = authService.authWithGoogle("token-google");
 
-            Assertions.assertNotNull(response.accessToken(), response.refreshToken());
-            verify(userRepository).findByEmail("novopedro@email.com");
-        }
+        Assertions.assertNotNull(response.accessToken(), response.refreshToken());
+        verify(userRepository).findByEmail("novopedro@email.com");
     }
 
     @Test
     @DisplayName("Auth with invalid Google token.")
-    void authWithGoogle03() {
-        try (MockedConstruction<GoogleIdTokenVerifier> myobjectMockedConstruction =
-                     Mockito.mockConstruction(GoogleIdTokenVerifier.class,
-                             (mock, context) -> {
-                                 given(mock.verify("token-google")).willReturn(null);
-                             })) {
-
-            Assertions.assertThrows(InvalidGoogleTokenException.class,
-                    () -> authService.authWithGoogle("token-google"));
-        }
+    void authWithGoogle03() throws Exception {
+        when(googleTokenVerifier.verify("token-google")).thenReturn(null);
+
+        Assertions.assertThrows(InvalidGoogleTokenException.class,
+                () -> authService.authWithGoogle("token-google"));
     }
 
     @Test
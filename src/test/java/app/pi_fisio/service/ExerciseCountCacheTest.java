@@ -0,0 +1,53 @@
+package app.pi_fisio.service;
+
+import app.pi_fisio.entity.Joint;
+import app.pi_fisio.queryfilters.ExerciseQueryFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExerciseCountCacheTest {
+
+    ExerciseCountCache countCache;
+    ExerciseQueryFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        countCache = new ExerciseCountCache(30);
+        filter = new ExerciseQueryFilter();
+        filter.setName("Ombro");
+        filter.setJoints(Set.of(Joint.SHOULDER));
+    }
+
+    @Test
+    @DisplayName("A total is served until the next invalidation")
+    void putAndInvalidate() {
+        countCache.put(filter, 7, countCache.epoch());
+
+        ExerciseQueryFilter sameFilter = new ExerciseQueryFilter();
+        sameFilter.setName(" ombro ");
+        sameFilter.setJoints(Set.of(Joint.SHOULDER));
+        assertEquals(7L, countCache.get(sameFilter));
+
+        countCache.invalidateAll();
+        assertNull(countCache.get(filter));
+    }
+
+    @Test
+    @DisplayName("A total counted before a concurrent invalidation is dropped")
+    void putAfterInvalidation() {
+        long countedAt = countCache.epoch();
+        // Uma escrita invalida o cache enquanto o COUNT ainda roda
+        countCache.invalidateAll();
+        countCache.put(filter, 7, countedAt);
+
+        assertNull(countCache.get(filter));
+
+        countCache.put(filter, 8, countCache.epoch());
+        assertEquals(8L, countCache.get(filter));
+    }
+}
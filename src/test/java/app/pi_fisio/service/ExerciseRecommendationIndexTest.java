@@ -0,0 +1,117 @@
+package app.pi_fisio.service;
+
+import app.pi_fisio.dto.ExerciseDTO;
+import app.pi_fisio.entity.Exercise;
+import app.pi_fisio.entity.Intensity;
+import app.pi_fisio.entity.Joint;
+import app.pi_fisio.repository.ExerciseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ExerciseRecommendationIndexTest {
+
+    @Mock
+    ExerciseRepository exerciseRepository;
+
+    @InjectMocks
+    ExerciseRecommendationIndex recommendationIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(exerciseRepository.findAll()).thenReturn(List.of(
+                new Exercise(2L, "Exercise 02", "Exercise 02 description", "6x", "https://videoUrl.com", Joint.SHOULDER, Intensity.HIGH),
+                new Exercise(1L, "Exercise 01", "Exercise 01 description", "3x", "https://videoUrl.com", Joint.SHOULDER, Intensity.HIGH),
+                new Exercise(3L, "Exercise 03", "Exercise 03 description", "12x", "https://videoUrl.com", Joint.KNEE, Intensity.MEDIUM)));
+    }
+
+    @Test
+    @DisplayName("Index is not ready before the first rebuild")
+    void notReady() {
+        assertFalse(recommendationIndex.isReady());
+        assertNull(recommendationIndex.get(Joint.SHOULDER, Intensity.HIGH));
+    }
+
+    @Test
+    @DisplayName("Rebuild groups exercises by joint and intensity, ordered by id")
+    void rebuild() {
+        recommendationIndex.rebuild();
+
+        assertTrue(recommendationIndex.isReady());
+        assertEquals(List.of(1L, 2L), ids(recommendationIndex.get(Joint.SHOULDER, Intensity.HIGH)));
+        assertEquals(List.of(3L), ids(recommendationIndex.get(Joint.KNEE, Intensity.MEDIUM)));
+        assertTrue(recommendationIndex.get(Joint.HIP, Intensity.LOW).isEmpty());
+        assertThrows(UnsupportedOperationException.class,
+                () -> recommendationIndex.get(Joint.KNEE, Intensity.MEDIUM).clear());
+    }
+
+    @Test
+    @DisplayName("Lookups after the rebuild do not touch the database")
+    void lookupWithoutDatabase() {
+        recommendationIndex.rebuild();
+        recommendationIndex.get(Joint.SHOULDER, Intensity.HIGH);
+        recommendationIndex.get(Joint.KNEE, Intensity.MEDIUM);
+
+        verify(exerciseRepository, times(1)).findAll();
+        verifyNoMoreInteractions(exerciseRepository);
+    }
+
+    @Test
+    @DisplayName("Updating an exercise moves it to its new bucket")
+    void putMovesBucket() {
+        recommendationIndex.rebuild();
+        List<ExerciseDTO> before = recommendationIndex.get(Joint.SHOULDER, Intensity.HIGH);
+
+        recommendationIndex.put(new ExerciseDTO(2L, "Exercise 02", "Exercise 02 description", "6x", "https://videoUrl.com", Joint.KNEE, Intensity.MEDIUM));
+
+        assertEquals(List.of(1L), ids(recommendationIndex.get(Joint.SHOULDER, Intensity.HIGH)));
+        assertEquals(List.of(2L, 3L), ids(recommendationIndex.get(Joint.KNEE, Intensity.MEDIUM)));
+        // leitores que já tinham o snapshot anterior não são afetados
+        assertEquals(List.of(1L, 2L), ids(before));
+    }
+
+    @Test
+    @DisplayName("Removing an exercise drops it from the index")
+    void remove() {
+        recommendationIndex.rebuild();
+        recommendationIndex.remove(3L);
+
+        assertTrue(recommendationIndex.get(Joint.KNEE, Intensity.MEDIUM).isEmpty());
+    }
+
+    @Test
+    @DisplayName("A late update with an older version or after the delete is ignored")
+    void outOfOrderWrites() {
+        recommendationIndex.rebuild();
+        ExerciseDTO newer = new ExerciseDTO(2L, "Exercise 02", "Exercise 02 description", "6x", "https://videoUrl.com", Joint.KNEE, Intensity.MEDIUM);
+        newer.setVersion(2L);
+        ExerciseDTO older = new ExerciseDTO(2L, "Exercise 02", "Exercise 02 description", "6x", "https://videoUrl.com", Joint.HIP, Intensity.LOW);
+        older.setVersion(1L);
+
+        recommendationIndex.put(newer);
+        recommendationIndex.put(older);
+        assertEquals(List.of(2L, 3L), ids(recommendationIndex.get(Joint.KNEE, Intensity.MEDIUM)));
+        assertTrue(recommendationIndex.get(Joint.HIP, Intensity.LOW).isEmpty());
+
+        recommendationIndex.remove(3L);
+        recommendationIndex.put(new ExerciseDTO(3L, "Exercise 03", "Exercise 03 description", "12x", "https://videoUrl.com", Joint.KNEE, Intensity.MEDIUM));
+        assertEquals(List.of(2L), ids(recommendationIndex.get(Joint.KNEE, Intensity.MEDIUM)));
+
+        // a remoção vale também para um rebuild que leu a linha antes do delete
+        recommendationIndex.rebuild();
+        assertTrue(recommendationIndex.get(Joint.KNEE, Intensity.MEDIUM).isEmpty());
+    }
+
+    private List<Long> ids(List<ExerciseDTO> exercises) {
+        return exercises.stream().map(ExerciseDTO::getId).toList();
+    }
+}
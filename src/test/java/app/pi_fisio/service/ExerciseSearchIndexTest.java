@@ -0,0 +1,110 @@
+package app.pi_fisio.service;
+
+import app.pi_fisio.dto.ExerciseDTO;
+import app.pi_fisio.entity.Exercise;
+import app.pi_fisio.entity.Intensity;
+import app.pi_fisio.entity.Joint;
+import app.pi_fisio.repository.ExerciseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+class ExerciseSearchIndexTest {
+
+    @Mock
+    ExerciseRepository exerciseRepository;
+
+    @InjectMocks
+    ExerciseSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(exerciseRepository.findAll()).thenReturn(List.of(
+                new Exercise(1L, "Rotação de Ombro", "Gire os ombros lentamente", "3x", "https://videoUrl.com", Joint.SHOULDER, Intensity.LOW),
+                new Exercise(2L, "Alongamento cervical", "Incline a cabeça para o lado", "6x", "https://videoUrl.com", Joint.CERVICAL, Intensity.LOW),
+                new Exercise(3L, "Elevação de ombros", "Movimento da região cervical e dos ombros", "12x", "https://videoUrl.com", Joint.SHOULDER, Intensity.HIGH)));
+        searchIndex.rebuild();
+    }
+
+    @Test
+    @DisplayName("Search ignores accents and case")
+    void accentFolding() {
+        assertEquals(Set.of(1L), searchIndex.search("ROTACAO"));
+        assertEquals(Set.of(3L), searchIndex.search("elevação"));
+    }
+
+    @Test
+    @DisplayName("Terms match by prefix on name and description")
+    void prefix() {
+        assertEquals(Set.of(1L, 3L), searchIndex.search("ombr"));
+        assertEquals(Set.of(2L, 3L), searchIndex.search("cerv"));
+    }
+
+    @Test
+    @DisplayName("Every term of the query must match")
+    void allTerms() {
+        assertEquals(Set.of(3L), searchIndex.search("ombro cervical"));
+        assertTrue(searchIndex.search("ombro joelho").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Blank queries do not filter by name")
+    void blankQuery() {
+        assertNull(searchIndex.search(null));
+        assertNull(searchIndex.search("  - "));
+    }
+
+    @Test
+    @DisplayName("Writes keep the index in sync")
+    void putAndRemove() {
+        searchIndex.put(new ExerciseDTO(2L, "Alongamento de quadril", "Sentado, puxe o joelho", "6x", "https://videoUrl.com", Joint.HIP, Intensity.LOW));
+        searchIndex.remove(3L);
+
+        assertEquals(Set.of(1L), searchIndex.search("ombro"));
+        assertTrue(searchIndex.search("cervical").isEmpty());
+        assertEquals(Set.of(2L), searchIndex.search("quadril"));
+    }
+
+    @Test
+    @DisplayName("A late update with an older version or after the delete is ignored")
+    void outOfOrderWrites() {
+        ExerciseDTO newer = new ExerciseDTO(2L, "Alongamento de quadril", "Sentado", "6x", "https://videoUrl.com", Joint.HIP, Intensity.LOW);
+        newer.setVersion(2L);
+        ExerciseDTO older = new ExerciseDTO(2L, "Alongamento de joelho", "Sentado", "6x", "https://videoUrl.com", Joint.KNEE, Intensity.LOW);
+        older.setVersion(1L);
+
+        searchIndex.put(newer);
+        searchIndex.put(older);
+        searchIndex.remove(3L);
+        searchIndex.put(new ExerciseDTO(3L, "Elevação de ombros", "Ombros", "12x", "https://videoUrl.com", Joint.SHOULDER, Intensity.HIGH));
+
+        assertEquals(Set.of(2L), searchIndex.search("quadril"));
+        assertTrue(searchIndex.search("joelho").isEmpty());
+        assertEquals(Set.of(1L), searchIndex.search("ombro"));
+    }
+
+    @Test
+    @DisplayName("Too many matches fall back to the database instead of a huge IN list")
+    void tooManyMatches() {
+        List<Exercise> exercises = new ArrayList<>();
+        for (long id = 1; id <= ExerciseSearchIndex.MAX_MATCHES + 1; id++) {
+            exercises.add(new Exercise(id, "Alongamento " + id, "Alongamento", "3x", "https://videoUrl.com", Joint.HIP, Intensity.LOW));
+        }
+        when(exerciseRepository.findAll()).thenReturn(exercises);
+        searchIndex.rebuild();
+
+        assertNull(searchIndex.search("al"));
+        assertEquals(Set.of(1001L), searchIndex.search("alongamento 1001"));
+    }
+}
@@ -19,6 +19,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.when;
 
 @SpringBootTest
@@ -45,13 +46,13 @@ public class ExerciseServiceTest {
         User user2 = new User();
         user2.setJointIntensities(List.of());
 
-        when(userRepository.findById(1L))
+        when(userRepository.findWithJointIntensitiesById(1L))
                 .thenReturn(Optional.of(user));
 
-        when(userRepository.findById(2L))
+        when(userRepository.findWithJointIntensitiesById(2L))
                 .thenReturn(Optional.of(new User()));
 
-        when(userRepository.findById(0L))
+        when(userRepository.findWithJointIntensitiesById(0L))
                 .thenReturn(Optional.of(user2));
 
         // Exercicios
@@ -81,6 +82,10 @@ public class ExerciseServiceTest {
                 .thenReturn(Optional.empty());
         when(exerciseRepository.existsById(1L))
                 .thenReturn(true);
+        when(exerciseRepository.update(eq(1L), any(), any()))
+                .thenReturn(1);
+        when(exerciseRepository.removeById(1L))
+                .thenReturn(1);
         when(exerciseRepository.findAll())
                 .thenReturn(List.of(exercise));
     }
@@ -130,7 +135,7 @@ public class ExerciseServiceTest {
     @DisplayName("Updating with a invalid id")
     void update02() {
         assertThrows(ExerciseNotFoundException.class,
-                () -> exerciseService.update(0L, new ExerciseDTO()));
+                () -> exerciseService.update(0L, new ExerciseDTO(null, "Exercise 03", "Exercise 03 description", "12x", "https://videoUrl.com", Joint.KNEE, Intensity.MEDIUM)));
     }
 
     @Test
@@ -1,5 +1,6 @@
 package app.pi_fisio.service;
 
+import app.pi_fisio.auth.JwtTokenCache;
 import app.pi_fisio.dto.UserDTO;
 import app.pi_fisio.entity.*;
 import app.pi_fisio.infra.exception.UserNotFoundException;
@@ -30,6 +31,9 @@ class UserServiceTest {
     @Mock
     UserDTO userDTO;
 
+    @Mock
+    JwtTokenCache jwtTokenCache;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -39,9 +43,9 @@ class UserServiceTest {
                 .name("Jose Aparecido")
                 .email("@gmail.com")
                 .role(UserRole.ADMIN)
-                .jointIntensities(List.of(
+                .jointIntensities(new ArrayList<>(List.of(
                         new JointIntensity(1L, Joint.SHOULDER, Intensity.HIGH, null),
-                        new JointIntensity(2L, Joint.KNEE, Intensity.MEDIUM, null)))
+                        new JointIntensity(2L, Joint.KNEE, Intensity.MEDIUM, null))))
                 .build();
 
         User user2 = User.builder()
@@ -49,9 +53,9 @@ class UserServiceTest {
                 .name("Fulano de Tal")
                 .email("fulano@gmail.com")
                 .role(UserRole.USER)
-                .jointIntensities(List.of(
+                .jointIntensities(new ArrayList<>(List.of(
                         new JointIntensity(1L, Joint.SHOULDER, Intensity.HIGH, null),
-                        new JointIntensity(2L, Joint.KNEE, Intensity.MEDIUM, null)))
+                        new JointIntensity(2L, Joint.KNEE, Intensity.MEDIUM, null))))
                 .build();
 
         User user3 = User.builder()
@@ -60,9 +64,9 @@ class UserServiceTest {
                 .email("joana@gmail.com")
                 .classes(List.of("Portugues"))
                 .role(UserRole.ADMIN)
-                .jointIntensities(List.of(
+                .jointIntensities(new ArrayList<>(List.of(
                         new JointIntensity(1L, Joint.SHOULDER, Intensity.HIGH, null),
-                        new JointIntensity(2L, Joint.KNEE, Intensity.MEDIUM, null)))
+                        new JointIntensity(2L, Joint.KNEE, Intensity.MEDIUM, null))))
                 .build();
 
         when(userRepository.findAll()).thenReturn(List.of(user1, user2, user3));